@@ -0,0 +1,76 @@
+package jpabook.jpashop.benchmark;
+
+import jakarta.persistence.EntityManager;
+import jpabook.jpashop.domain.*;
+import jpabook.jpashop.domain.item.Book;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 벤치마크용 데이터 적재 (회원 / 상품 / 주문 수를 파라미터로 받는다.)
+ * 주문은 flush 후 detach 해서 영속성 컨텍스트가 커지지 않도록 하고, 회원/상품은 주문에서 참조해야 하므로 영속 상태로 둔다.
+ */
+public class BenchmarkDataSeeder {
+
+    private static final int FLUSH_SIZE = 500;
+
+    private final EntityManager em;
+    private final TransactionTemplate transactionTemplate;
+
+    public BenchmarkDataSeeder(EntityManager em, TransactionTemplate transactionTemplate) {
+        this.em = em;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public void seed(int memberCount, int itemCount, int orderCount, int itemsPerOrder) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Member> members = new ArrayList<>(memberCount);
+            for (int i = 0; i < memberCount; i++) {
+                Member member = new Member();
+                member.setName("member" + i);
+                member.setAddress(new Address("city" + (i % 10), "street" + i, "zip" + i));
+                em.persist(member);
+                members.add(member);
+            }
+
+            List<Book> items = new ArrayList<>(itemCount);
+            for (int i = 0; i < itemCount; i++) {
+                Book book = new Book();
+                book.setName("book" + i);
+                book.setPrice(1000 + (i % 100) * 100);
+                book.setStockQuantity(Integer.MAX_VALUE);
+                em.persist(book);
+                items.add(book);
+            }
+
+            List<Order> pending = new ArrayList<>(FLUSH_SIZE);
+            for (int i = 0; i < orderCount; i++) {
+                Member member = members.get(i % memberCount);
+                OrderItem[] orderItems = new OrderItem[itemsPerOrder];
+                for (int j = 0; j < itemsPerOrder; j++) {
+                    Book book = items.get((i + j) % itemCount);
+                    orderItems[j] = OrderItem.createOrderItem(book, book.getPrice(), 1 + (j % 3));
+                }
+
+                Delivery delivery = new Delivery();
+                delivery.setAddress(member.getAddress());
+                Order order = Order.createOrder(member, delivery, orderItems);
+                em.persist(order);
+                pending.add(order);
+
+                if (pending.size() == FLUSH_SIZE) {
+                    flushAndDetach(pending);
+                }
+            }
+            flushAndDetach(pending);
+        });
+    }
+
+    private void flushAndDetach(List<Order> orders) {
+        em.flush();
+        orders.forEach(em::detach);     // cascade ALL ⇒ orderItems, delivery 도 같이 detach
+        orders.clear();
+    }
+}
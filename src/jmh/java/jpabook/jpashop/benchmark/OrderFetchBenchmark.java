@@ -0,0 +1,176 @@
+package jpabook.jpashop.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jpabook.jpashop.JpashopApplication;
+import jpabook.jpashop.api.OrderApiController;
+import jpabook.jpashop.api.OrderSimpleApiController;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * /api/vN/orders, /api/vN/simple-orders 조회 전략 비교 (end-to-end)
+ * H2 in-memory 에 회원/상품/주문을 적재한 뒤 각 컨트롤러 메서드를 읽기 전용 트랜잭션 안에서 호출하고 Jackson 직렬화까지 한다.
+ * ⇒ 레포지토리 쿼리 + DTO 변환 + 지연 로딩 + JSON 직렬화까지 포함한 비용이다.
+ *
+ * ./gradlew jmh (gc 프로파일러 포함, 볼륨 변경 : jmh { benchmarkParameters = [orders: ['100000']] })
+ * v1(엔티티 직접 노출)은 Order ↔ OrderItem 양방향 참조 때문에 직렬화가 무한루프에 빠지므로 제외했다.
+ * sqlStatements 보조 카운터는 초당 실행된 SQL 수이므로, 해당 벤치마크의 ops/s 로 나누면 요청 1번당 SQL 수가 된다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class OrderFetchBenchmark {
+
+    @Param({"100"})
+    int members;
+
+    @Param({"100"})
+    int items;
+
+    @Param({"1000", "10000"})
+    int orders;
+
+    @Param({"2"})
+    int itemsPerOrder;
+
+    @Param({"100"})
+    int pageSize;
+
+    ConfigurableApplicationContext context;
+    TransactionTemplate readOnlyTx;
+    ObjectMapper objectMapper;
+    Statistics statistics;
+
+    OrderApiController orderApi;
+    OrderSimpleApiController simpleOrderApi;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class SqlCounters {
+        public long sqlStatements;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(JpashopApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(       // 커맨드라인 인자 ⇒ application.yml 보다 우선 (properties() 는 우선순위가 가장 낮다.)
+                        "--spring.datasource.url=jdbc:h2:mem:jmh;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=none",     // 스키마는 Flyway
+                        "--spring.jpa.properties.hibernate.generate_statistics=true",
+                        "--spring.jpa.properties.hibernate.jdbc.batch_size=500",
+                        "--spring.jpa.properties.hibernate.order_inserts=true",
+                        "--decorator.datasource.p6spy.enable-logging=false",
+                        "--logging.level.org.hibernate.SQL=warn",
+                        "--logging.level.org.hibernate.orm.jdbc.bind=warn");
+
+        readOnlyTx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTx.setReadOnly(true);
+        objectMapper = context.getBean(ObjectMapper.class);
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        orderApi = context.getBean(OrderApiController.class);
+        simpleOrderApi = context.getBean(OrderSimpleApiController.class);
+
+        TransactionTemplate writeTx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        new BenchmarkDataSeeder(context.getBean(EntityManager.class), writeTx)
+                .seed(members, items, orders, itemsPerOrder);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private byte[] call(SqlCounters counters, Supplier<Object> endpoint) {
+        long before = statistics.getPrepareStatementCount();
+        byte[] json = readOnlyTx.execute(status -> {
+            try {
+                return objectMapper.writeValueAsBytes(endpoint.get());
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        counters.sqlStatements += statistics.getPrepareStatementCount() - before;
+        return json;
+    }
+
+    // ===== /api/vN/orders =====
+
+    @Benchmark
+    public byte[] ordersV2_lazyDto(SqlCounters counters) {
+        return call(counters, () -> orderApi.ordersV2());
+    }
+
+    @Benchmark
+    public byte[] ordersV3_fetchJoin(SqlCounters counters) {
+        return call(counters, () -> orderApi.ordersV3());
+    }
+
+    @Benchmark
+    public byte[] ordersV3_1_page(SqlCounters counters) {
+        return call(counters, () -> orderApi.ordersV3_page(0, pageSize));
+    }
+
+    @Benchmark
+    public byte[] ordersV3_1_keyset(SqlCounters counters) {
+        return call(counters, () -> orderApi.ordersV3_keyset(null, pageSize));
+    }
+
+    @Benchmark
+    public byte[] ordersV3_2_page(SqlCounters counters) {
+        return call(counters, () -> orderApi.ordersV3_2_page(0, pageSize));
+    }
+
+    @Benchmark
+    public byte[] ordersV4_queryDtoNPlusOne(SqlCounters counters) {
+        return call(counters, () -> orderApi.ordersV4());
+    }
+
+    @Benchmark
+    public byte[] ordersV5_queryDtoInQuery(SqlCounters counters) {
+        return call(counters, () -> orderApi.ordersV5());
+    }
+
+    @Benchmark
+    public byte[] ordersV6_flat(SqlCounters counters) {
+        return call(counters, () -> orderApi.ordersV6());
+    }
+
+    // ===== /api/vN/simple-orders =====
+
+    @Benchmark
+    public byte[] simpleOrdersV2_lazyDto(SqlCounters counters) {
+        return call(counters, () -> simpleOrderApi.ordersV2());
+    }
+
+    @Benchmark
+    public byte[] simpleOrdersV3_fetchJoin(SqlCounters counters) {
+        return call(counters, () -> simpleOrderApi.ordersV3());
+    }
+
+    @Benchmark
+    public byte[] simpleOrdersV3_keyset(SqlCounters counters) {
+        return call(counters, () -> simpleOrderApi.ordersV3_keyset(null, pageSize));
+    }
+
+    @Benchmark
+    public byte[] simpleOrdersV4_queryDto(SqlCounters counters) {
+        return call(counters, () -> simpleOrderApi.ordersV4());
+    }
+}
@@ -0,0 +1,116 @@
+package jpabook.jpashop.benchmark;
+
+import jakarta.persistence.EntityManager;
+import jpabook.jpashop.JpashopApplication;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.repository.OrderStatelessReader;
+import jpabook.jpashop.service.query.SimpleOrderDto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 주문 목록(회원/배송 패치 조인) 10만 건을 SimpleOrderDto 로 바꾸는 비용 비교
+ * - managed : 힌트 없는 쿼리 + 쓰기 트랜잭션 ⇒ 엔티티마다 변경 감지 스냅샷, 커밋 때 flush 에서 전체 dirty checking
+ * - readOnlyHint : OrderRepository.findAllWithMemberDelivery (org.hibernate.readOnly) + 같은 쓰기 트랜잭션 ⇒ 스냅샷 없음, dirty checking 제외
+ * - stateless : OrderStatelessReader (StatelessSession, chunk 키셋) ⇒ 영속성 컨텍스트 자체가 없다.
+ *
+ * ./gradlew jmh (이 벤치마크만 : jmh { includes = ['ReadOnlyFetchBenchmark'] })
+ * gc 프로파일러의 gc.alloc.rate.norm(요청 1번당 할당 bytes), gc.count, gc.time 을 비교한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class ReadOnlyFetchBenchmark {
+
+    @Param({"1000"})
+    int members;
+
+    @Param({"100"})
+    int items;
+
+    @Param({"100000"})
+    int orders;
+
+    @Param({"1000"})
+    int chunkSize;
+
+    ConfigurableApplicationContext context;
+    TransactionTemplate writeTx;
+    EntityManager em;
+    OrderRepository orderRepository;
+    OrderStatelessReader orderStatelessReader;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(JpashopApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:jmh-readonly;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=none",
+                        "--spring.jpa.properties.hibernate.generate_statistics=false",
+                        "--spring.jpa.properties.hibernate.cache.use_second_level_cache=false",     // 엔티티 로딩 비용만 비교
+                        "--spring.jpa.properties.hibernate.cache.use_query_cache=false",
+                        "--spring.jpa.properties.hibernate.jdbc.batch_size=500",
+                        "--spring.jpa.properties.hibernate.order_inserts=true",
+                        "--decorator.datasource.p6spy.enable-logging=false",
+                        "--logging.level.org.hibernate.SQL=warn",
+                        "--logging.level.org.hibernate.orm.jdbc.bind=warn");
+
+        writeTx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        em = context.getBean(EntityManager.class);
+        orderRepository = context.getBean(OrderRepository.class);
+        orderStatelessReader = context.getBean(OrderStatelessReader.class);
+
+        new BenchmarkDataSeeder(em, writeTx).seed(members, items, orders, 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<SimpleOrderDto> managed() {
+        return writeTx.execute(status -> {
+            List<Order> result = em.createQuery(
+                    "select o from Order o" +
+                            " join fetch o.member m" +
+                            " join fetch o.delivery d", Order.class)
+                    .getResultList();
+            return toDtos(result);
+        });
+    }
+
+    @Benchmark
+    public List<SimpleOrderDto> readOnlyHint() {
+        return writeTx.execute(status -> toDtos(orderRepository.findAllWithMemberDelivery()));
+    }
+
+    @Benchmark
+    public List<SimpleOrderDto> stateless() {
+        List<SimpleOrderDto> result = new ArrayList<>(orders);
+        orderStatelessReader.forEachWithMemberDelivery(chunkSize, o -> result.add(new SimpleOrderDto(o)));
+        return result;
+    }
+
+    private List<SimpleOrderDto> toDtos(List<Order> result) {
+        return result.stream()
+                .map(o -> new SimpleOrderDto(o))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,70 @@
+package jpabook.jpashop.repository.order.query;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.OrderStatus;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.stream.Collectors.*;
+
+/**
+ * v6 flat → tree 조립 비교
+ * groupingBy : 기존 OrderApiController.ordersV6() 의 collector 방식
+ * sequential / parallel : OrderFlatAssembler
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderFlatAssemblerBenchmark {
+
+    @Param({"1000", "100000", "500000"})
+    int rows;
+
+    @Param({"2", "5"})
+    int itemsPerOrder;
+
+    List<OrderFlatDto> flats;
+
+    @Setup
+    public void setUp() {
+        flats = new ArrayList<>(rows);
+        LocalDateTime now = LocalDateTime.now();
+        Address address = new Address("서울", "강가", "123-123");
+        for (int i = 0; i < rows; i++) {
+            long orderId = i / itemsPerOrder;
+            flats.add(new OrderFlatDto(orderId, "member" + orderId, now, OrderStatus.ORDER, address,
+                    "item" + (i % itemsPerOrder), 10000, 1));
+        }
+    }
+
+    @Benchmark
+    public List<OrderQueryDto> groupingBy() {
+        return flats.stream()
+                .collect(groupingBy(o -> new OrderQueryDto(o.getOrderId(),
+                                o.getName(), o.getOrderDate(), o.getOrderStatus(), o.getAddress()),
+                        mapping(o -> new OrderItemQueryDto(o.getOrderId(),
+                                o.getItemName(), o.getOrderPrice(), o.getCount()), toList())
+                )).entrySet().stream()
+                .map(e -> new OrderQueryDto(e.getKey().getOrderId(),
+                        e.getKey().getName(), e.getKey().getOrderDate(), e.getKey().getOrderStatus(),
+                        e.getKey().getAddress(), e.getValue()))
+                .collect(toList());
+    }
+
+    @Benchmark
+    public List<OrderQueryDto> sequential() {
+        return OrderFlatAssembler.assembleSequential(flats);
+    }
+
+    @Benchmark
+    public List<OrderQueryDto> parallel() {
+        return OrderFlatAssembler.assembleParallel(flats);
+    }
+}
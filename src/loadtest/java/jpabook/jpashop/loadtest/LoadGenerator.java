@@ -0,0 +1,203 @@
+package jpabook.jpashop.loadtest;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jpabook.jpashop.JpashopApplication;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 주문/취소/조회 API 부하 생성기 (./gradlew loadTest)
+ * - closed : 동시 사용자 concurrency 명이 응답을 받자마자 다음 요청을 보낸다. (처리량의 상한을 본다.)
+ * - open : 응답과 상관없이 초당 rate 건을 일정한 간격으로 보낸다. 응답 시간은 "보냈어야 하는 시각" 부터 잰다.
+ *          (서버가 밀리면 대기 시간까지 응답 시간에 포함된다. ⇒ coordinated omission 보정)
+ * warmup 동안의 결과는 버리고, duration 동안 요청 종류별 p50/p99/p999 와 처리량을 출력한다.
+ * embedded=true(기본) 면 seed 프로필로 애플리케이션을 같은 JVM 에서 띄우고 H2 메모리 DB 에 데이터를 넣은 뒤 실행한다.
+ */
+public class LoadGenerator {
+
+    private final LoadTestOptions options;
+    private final Workload workload;
+    private final HttpClient client;
+    private final Map<String, EndpointStats> stats = new LinkedHashMap<>();
+
+    private long measureStartNanos;
+    private long endNanos;
+
+    public LoadGenerator(LoadTestOptions options, String baseUrl) {
+        this.options = options;
+        this.workload = new Workload(options, baseUrl);
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(options.getTimeout())
+                .build();
+        workload.getNames().forEach(name -> stats.put(name, new EndpointStats(name)));
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+
+        ConfigurableApplicationContext app = null;
+        String baseUrl = options.getBaseUrl();
+        if (options.isEmbedded()) {
+            app = startEmbedded(options);
+            baseUrl = "http://localhost:" + ((WebServerApplicationContext) app).getWebServer().getPort();
+        }
+
+        try {
+            new LoadGenerator(options, baseUrl).run();
+            if (app != null) {
+                reportConnectionUsage(app);
+            }
+        } finally {
+            if (app != null) {
+                app.close();
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext startEmbedded(LoadTestOptions options) {
+        List<String> properties = new ArrayList<>(List.of(
+                "server.port=0",
+                "spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+                "jpashop.seed.members=" + options.getMembers(),
+                "jpashop.seed.items=" + options.getItems(),
+                "jpashop.seed.orders=" + options.getOrders(),
+                "decorator.datasource.p6spy.enable-logging=false",
+                "logging.level.org.hibernate.SQL=warn",
+                "logging.level.org.hibernate.orm.jdbc.bind=warn"));
+        properties.addAll(options.getAppProperties());
+
+        // properties() 로 넘기면 우선순위가 가장 낮아서 application-seed.yml 의 datasource 가 이긴다. ⇒ 커맨드라인 인자로 넘긴다.
+        return new SpringApplicationBuilder(JpashopApplication.class)
+                .profiles("seed")
+                .run(properties.stream().map(property -> "--" + property).toArray(String[]::new));
+    }
+
+    public void run() throws Exception {
+        long startNanos = System.nanoTime();
+        measureStartNanos = startNanos + options.getWarmup().toNanos();
+        endNanos = measureStartNanos + options.getDuration().toNanos();
+
+        System.out.printf("%s loop, %s, warmup %ds, duration %ds%n",
+                options.getMode(),
+                options.isOpenLoop() ? options.getRate() + " req/s" : options.getConcurrency() + " users",
+                options.getWarmup().toSeconds(), options.getDuration().toSeconds());
+
+        if (options.isOpenLoop()) {
+            runOpenLoop(startNanos);
+        } else {
+            runClosedLoop();
+        }
+        report();
+    }
+
+    private void runClosedLoop() throws InterruptedException {
+        ExecutorService users = Executors.newFixedThreadPool(options.getConcurrency());
+        for (int i = 0; i < options.getConcurrency(); i++) {
+            users.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < endNanos) {
+                    String name = workload.next(random);
+                    HttpRequest request = workload.build(name, random);
+                    long sentNanos = System.nanoTime();
+                    boolean success;
+                    try {
+                        success = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() < 400;
+                    } catch (Exception e) {
+                        success = false;
+                    }
+                    record(name, sentNanos, System.nanoTime(), success);
+                }
+            });
+        }
+        users.shutdown();
+        users.awaitTermination(options.getDuration().plus(options.getWarmup()).plus(options.getTimeout()).toSeconds(), TimeUnit.SECONDS);
+    }
+
+    private void runOpenLoop(long startNanos) throws InterruptedException {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / options.getRate();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (long i = 0; ; i++) {
+            long intendedNanos = startNanos + i * intervalNanos;
+            if (intendedNanos >= endNanos) {
+                break;
+            }
+            long waitNanos = intendedNanos - System.nanoTime();
+            if (waitNanos > 0) {
+                LockSupport.parkNanos(waitNanos);
+            }
+
+            String name = workload.next(random);
+            client.sendAsync(workload.build(name, random), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, e) -> record(name, intendedNanos, System.nanoTime(),
+                            e == null && response.statusCode() < 400));
+        }
+        // 마지막 요청들의 응답 대기
+        Thread.sleep(options.getTimeout().toMillis());
+    }
+
+    // 측정 구간(warmup 이후 ~ 종료)에 보낸 요청만 기록
+    private void record(String name, long sentNanos, long receivedNanos, boolean success) {
+        if (sentNanos < measureStartNanos || sentNanos >= endNanos) {
+            return;
+        }
+        stats.get(name).record(TimeUnit.NANOSECONDS.toMicros(receivedNanos - sentNanos), success);
+    }
+
+    private void report() {
+        double seconds = options.getDuration().toMillis() / 1000.0;
+        System.out.printf("%n%-24s %9s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "count", "errors", "req/s", "p50(ms)", "p99(ms)", "p999(ms)", "max(ms)");
+
+        Histogram total = new Histogram(3);
+        long totalErrors = 0;
+        for (EndpointStats endpoint : stats.values()) {
+            Histogram latencies = endpoint.getLatencies().copy();
+            print(endpoint.getName(), latencies, endpoint.getErrors(), seconds);
+            total.add(latencies);
+            totalErrors += endpoint.getErrors();
+        }
+        print("total", total, totalErrors, seconds);
+    }
+
+    /* 커넥션을 빌려서 반납할 때까지 걸린 시간 (Hikari usage, warmup 포함)
+    * OSIV 가 켜져 있으면 뷰 렌더링/JSON 직렬화까지 포함되고, 꺼져 있으면 트랜잭션(쿼리) 시간만 포함된다. */
+    private static void reportConnectionUsage(ConfigurableApplicationContext app) {
+        Timer usage = app.getBean(MeterRegistry.class).find("hikaricp.connections.usage").timer();
+        if (usage == null) {
+            return;
+        }
+        System.out.printf("%nconnection hold : count %d, mean %.2fms, max %.2fms (open-in-view=%s)%n",
+                usage.count(),
+                usage.mean(TimeUnit.MILLISECONDS),
+                usage.max(TimeUnit.MILLISECONDS),
+                app.getEnvironment().getProperty("spring.jpa.open-in-view"));
+    }
+
+    private static void print(String name, Histogram latencies, long errors, double seconds) {
+        System.out.printf("%-24s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                name,
+                latencies.getTotalCount(),
+                errors,
+                latencies.getTotalCount() / seconds,
+                latencies.getValueAtPercentile(50) / 1000.0,
+                latencies.getValueAtPercentile(99) / 1000.0,
+                latencies.getValueAtPercentile(99.9) / 1000.0,
+                latencies.getMaxValue() / 1000.0);
+    }
+}
@@ -0,0 +1,87 @@
+package jpabook.jpashop.loadtest;
+
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 부하 테스트 옵션 (--key=value)
+ * ./gradlew loadTest --args='--mode=open --rate=300 --duration=60 --mix=order=30,cancel=5,orders-v5=10'
+ */
+@Getter
+public class LoadTestOptions {
+
+    // 기본 부하 구성 (이름=가중치) ⇒ Workload.java 의 요청 이름
+    static final String DEFAULT_MIX = "order=20,cancel=5,members-v2=10," +
+            "orders-v2=5,orders-v3=5,orders-v3.1=10,orders-v3.2=10,orders-v3.1-keyset=10,orders-v4=5,orders-v5=5,orders-v5.1=5," +
+            "simple-orders-v2=5,simple-orders-v3=5,simple-orders-v4=5";
+
+    private final String baseUrl;
+    private final boolean embedded;         // true 면 애플리케이션을 같은 JVM 에서 띄우고 seed 데이터를 넣는다.
+    private final String mode;              // closed : 동시 사용자 수 고정 / open : 초당 요청 수 고정
+    private final int concurrency;          // closed 모드 동시 사용자 수
+    private final int rate;                 // open 모드 초당 요청 수
+    private final Duration warmup;
+    private final Duration duration;
+    private final Duration timeout;
+    private final Map<String, Integer> mix;
+    private final long members;             // 요청에 넣을 id 범위 (seed 데이터와 같아야 한다.)
+    private final long items;
+    private final long orders;
+    private final int pageSize;
+    private final List<String> appProperties;   // --app.xxx=yyy ⇒ 내장 애플리케이션에 xxx=yyy 로 전달 (예 : --app.spring.threads.virtual.enabled=true)
+
+    private LoadTestOptions(Map<String, String> args) {
+        this.embedded = Boolean.parseBoolean(args.getOrDefault("embedded", "true"));
+        this.baseUrl = args.getOrDefault("base-url", "http://localhost:8080");
+        this.mode = args.getOrDefault("mode", "closed");
+        this.concurrency = Integer.parseInt(args.getOrDefault("concurrency", "32"));
+        this.rate = Integer.parseInt(args.getOrDefault("rate", "200"));
+        this.warmup = Duration.ofSeconds(Long.parseLong(args.getOrDefault("warmup", "10")));
+        this.duration = Duration.ofSeconds(Long.parseLong(args.getOrDefault("duration", "30")));
+        this.timeout = Duration.ofSeconds(Long.parseLong(args.getOrDefault("timeout", "30")));
+        this.mix = parseMix(args.getOrDefault("mix", DEFAULT_MIX));
+        this.members = Long.parseLong(args.getOrDefault("members", "1000"));
+        this.items = Long.parseLong(args.getOrDefault("items", "1000"));
+        this.orders = Long.parseLong(args.getOrDefault("orders", "20000"));
+        this.pageSize = Integer.parseInt(args.getOrDefault("page-size", "20"));
+        this.appProperties = args.entrySet().stream()
+                .filter(e -> e.getKey().startsWith("app."))
+                .map(e -> e.getKey().substring("app.".length()) + "=" + e.getValue())
+                .collect(Collectors.toList());
+
+        if (!mode.equals("closed") && !mode.equals("open")) {
+            throw new IllegalArgumentException("mode 는 closed 또는 open 입니다. mode=" + mode);
+        }
+    }
+
+    public static LoadTestOptions parse(String[] args) {
+        Map<String, String> map = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("옵션은 --key=value 형식입니다. arg=" + arg);
+            }
+            int eq = arg.indexOf('=');
+            map.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        return new LoadTestOptions(map);
+    }
+
+    private static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] pair = entry.trim().split("=");
+            weights.put(pair[0], Integer.parseInt(pair[1]));
+        }
+        return weights;
+    }
+
+    public boolean isOpenLoop() {
+        return mode.equals("open");
+    }
+}
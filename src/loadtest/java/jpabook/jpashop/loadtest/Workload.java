@@ -0,0 +1,123 @@
+package jpabook.jpashop.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * 요청 종류별로 요청을 만드는 곳
+ * id 는 seed 데이터 범위(1 ~ members/items/orders)에서 무작위로 고른다. ⇒ SeedDataLoader.java 참고
+ */
+public class Workload {
+
+    private final Map<String, Function<ThreadLocalRandom, HttpRequest>> requests = new LinkedHashMap<>();
+    private final List<String> names = new ArrayList<>();
+    private final int[] cumulativeWeights;
+    private final int totalWeight;
+    private final Duration timeout;
+
+    public Workload(LoadTestOptions options, String baseUrl) {
+        this.timeout = options.getTimeout();
+        long members = options.getMembers();
+        long items = options.getItems();
+        long orders = options.getOrders();
+        int limit = options.getPageSize();
+
+        // 주문 (OrderController, form)
+        register("order", r -> post(baseUrl + "/order", "application/x-www-form-urlencoded",
+                "memberId=" + randomId(r, members) + "&itemId=" + randomId(r, items) + "&count=1"));
+        // 취소 (seed 데이터는 order_id 가 3의 배수면 배송 완료 ⇒ 취소 불가라서 제외, 이미 취소된 주문은 건너뛴다.)
+        register("cancel", r -> post(baseUrl + "/api/v1/orders/cancel", "application/json",
+                "{\"orderIds\":[" + cancelableOrderId(r, orders) + "]}"));
+        register("members-v2", r -> get(baseUrl + "/api/v2/members"));
+        register("order-list", r -> get(baseUrl + "/orders"));
+
+        register("orders-v1", r -> get(baseUrl + "/api/v1/orders"));
+        register("orders-v2", r -> get(baseUrl + "/api/v2/orders"));
+        register("orders-v3", r -> get(baseUrl + "/api/v3/orders"));
+        register("orders-v3.1", r -> get(baseUrl + "/api/v3.1/orders?offset=" + randomOffset(r, orders, limit) + "&limit=" + limit));
+        register("orders-v3.2", r -> get(baseUrl + "/api/v3.2/orders?offset=" + randomOffset(r, orders, limit) + "&limit=" + limit));
+        register("orders-v3.1-keyset", r -> get(baseUrl + "/api/v3.1/orders/keyset?limit=" + limit));
+        register("orders-v4", r -> get(baseUrl + "/api/v4/orders"));
+        register("orders-v5", r -> get(baseUrl + "/api/v5/orders"));
+        register("orders-v5.1", r -> get(baseUrl + "/api/v5.1/orders"));
+        register("orders-v6", r -> get(baseUrl + "/api/v6/orders"));
+
+        register("simple-orders-v2", r -> get(baseUrl + "/api/v2/simple-orders"));
+        register("simple-orders-v3", r -> get(baseUrl + "/api/v3/simple-orders"));
+        register("simple-orders-v3-keyset", r -> get(baseUrl + "/api/v3/simple-orders/keyset?limit=" + limit));
+        register("simple-orders-v4", r -> get(baseUrl + "/api/v4/simple-orders"));
+        register("simple-orders-v4.1", r -> get(baseUrl + "/api/v4.1/simple-orders"));
+
+        Map<String, Integer> mix = options.getMix();
+        cumulativeWeights = new int[mix.size()];
+        int sum = 0;
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : mix.entrySet()) {
+            if (!requests.containsKey(entry.getKey())) {
+                throw new IllegalArgumentException("알 수 없는 요청 이름입니다. name=" + entry.getKey() + ", 가능한 값=" + requests.keySet());
+            }
+            sum += entry.getValue();
+            names.add(entry.getKey());
+            cumulativeWeights[i++] = sum;
+        }
+        totalWeight = sum;
+    }
+
+    public List<String> getNames() {
+        return names;
+    }
+
+    // 가중치에 따라 요청 종류 선택
+    public String next(ThreadLocalRandom random) {
+        int pick = random.nextInt(totalWeight);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return names.get(i);
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    public HttpRequest build(String name, ThreadLocalRandom random) {
+        return requests.get(name).apply(random);
+    }
+
+    private void register(String name, Function<ThreadLocalRandom, HttpRequest> request) {
+        requests.put(name, request);
+    }
+
+    private static long randomId(ThreadLocalRandom random, long max) {
+        return random.nextLong(1, max + 1);
+    }
+
+    private static long cancelableOrderId(ThreadLocalRandom random, long orders) {
+        long id = randomId(random, orders);
+        return id % 3 == 0 ? Math.max(1, id - 1) : id;
+    }
+
+    private static long randomOffset(ThreadLocalRandom random, long orders, int limit) {
+        return random.nextLong(0, Math.max(1, orders - limit));
+    }
+
+    private HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(timeout)
+                .GET()
+                .build();
+    }
+
+    private HttpRequest post(String url, String contentType, String body) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(timeout)
+                .header("Content-Type", contentType)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+}
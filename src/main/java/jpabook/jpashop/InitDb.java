@@ -4,18 +4,25 @@ import jakarta.annotation.PostConstruct;
 import jakarta.persistence.EntityManager;
 import jpabook.jpashop.domain.*;
 import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.repository.MemberNameTokenRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 @Component
+@Profile("local")      // 샘플 주문 2건 (대량 데이터는 seed 프로필 ⇒ SeedDataLoader.java 참고)
 @RequiredArgsConstructor
 public class InitDb {
 
     private final InitService initService;
 
+    // 스키마를 다시 만들지 않으므로(Flyway) 재시작할 때마다 샘플이 쌓이지 않게, 회원이 이미 있으면 넣지 않는다.
     @PostConstruct
     public void init() {
+        if (initService.hasData()) {
+            return;
+        }
         initService.dbInit1();
         initService.dbInit2();
     }
@@ -26,9 +33,19 @@ public class InitDb {
     static class InitService {
 
         private final EntityManager em;
+        private final MemberNameTokenRepository memberNameTokenRepository;
+
+        public boolean hasData() {
+            return !em.createQuery("select m.id from Member m", Long.class)
+                    .setMaxResults(1)
+                    .getResultList()
+                    .isEmpty();
+        }
+
         public void dbInit1() {
             Member member = createMember("userA", "서울", "1", "111");
             em.persist(member);
+            memberNameTokenRepository.index(member);
 
             Book book1 = createBook("JPA1 BOOK", 10000, 100);
             em.persist(book1);
@@ -47,6 +64,7 @@ public class InitDb {
         public void dbInit2() {
             Member member = createMember("userB", "진주", "2", "222");
             em.persist(member);
+            memberNameTokenRepository.index(member);
 
             Book book1 = createBook("SPRING1 BOOK", 20000, 200);
             em.persist(book1);
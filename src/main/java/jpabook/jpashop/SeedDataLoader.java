@@ -0,0 +1,127 @@
+package jpabook.jpashop;
+
+import jpabook.jpashop.service.ItemSearchService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * 대량 데이터 생성 (seed 프로필, 부하 테스트용)
+ * InitDb 처럼 엔티티를 하나씩 persist 하지 않고, H2 SYSTEM_RANGE 로 행을 만들어서 insert ... select 로 한 번에 넣는다.
+ * (JPA / 영속성 컨텍스트 / JDBC 왕복이 없어서 주문 1,000만 건도 수십 초 안에 들어간다.)
+ * - 수량은 application-seed.yml 의 jpashop.seed.* 로 설정
+ * - orders 테이블이 비어있을 때만 실행된다.
+ * - 넣은 뒤에는 시퀀스를 최대 id 다음으로 옮겨서 애플리케이션이 만드는 id 와 겹치지 않게 한다.
+ * H2 전용 SQL 이다. (SYSTEM_RANGE, BOOL_OR)
+ */
+@Slf4j
+@Component
+@Profile("seed")
+public class SeedDataLoader implements ApplicationRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ItemSearchService itemSearchService;
+    private final long members;
+    private final long items;
+    private final long orders;
+    private final int itemsPerOrder;
+    private final long chunkSize;
+
+    public SeedDataLoader(JdbcTemplate jdbcTemplate,
+                          ItemSearchService itemSearchService,
+                          @Value("${jpashop.seed.members}") long members,
+                          @Value("${jpashop.seed.items}") long items,
+                          @Value("${jpashop.seed.orders}") long orders,
+                          @Value("${jpashop.seed.items-per-order:2}") int itemsPerOrder,
+                          @Value("${jpashop.seed.chunk-size:1000000}") long chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.itemSearchService = itemSearchService;
+        this.members = members;
+        this.items = items;
+        this.orders = orders;
+        this.itemsPerOrder = itemsPerOrder;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        Long existing = jdbcTemplate.queryForObject("select count(*) from orders", Long.class);
+        if (existing != null && existing > 0) {
+            log.info("seed 생략 : 이미 주문 {}건이 있습니다.", existing);
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+
+        insertInChunks(members,
+                "insert into member (member_id, name, city, street, zipcode)" +
+                        " select x, 'member' || x, '서울', '강가' || mod(x, 100), lpad(mod(x, 100000), 5, '0')" +
+                        " from system_range(?, ?)");
+        insertInChunks(members,
+                // 이름 토큰 (MemberNameTokens 와 같은 규칙 : 1~3글자, 이름 맨 앞이면 prefix) ⇒ 생성한 이름은 소문자, 공백 없음
+                "insert into member_name_token (member_name_token_id, member_id, token, prefix)" +
+                        " select (t.member_id - 1) * 100 + row_number() over (partition by t.member_id order by t.token), t.member_id, t.token, bool_or(t.pos = 1)" +
+                        " from (select m.member_id, substring(m.name, s.x, g.x) token, s.x pos" +
+                        "       from member m" +
+                        "       join system_range(1, 20) s on s.x <= length(m.name)" +
+                        "       join system_range(1, 3) g on s.x + g.x - 1 <= length(m.name)" +
+                        "       where m.member_id between ? and ?) t" +
+                        " group by t.member_id, t.token");
+        insertInChunks(items,
+                "insert into item (dtype, item_id, name, price, stock_quantity, author, isbn)" +
+                        " select 'B', x, 'book' || x, 10000 + mod(x, 50) * 100, 1000000, 'author' || mod(x, 1000), 'isbn-' || x" +
+                        " from system_range(?, ?)");
+        insertInChunks(orders,
+                "insert into delivery (delivery_id, city, street, zipcode, status)" +
+                        " select x, '서울', '강가', '12345', case when mod(x, 3) = 0 then 'COMP' else 'READY' end" +
+                        " from system_range(?, ?)");
+        insertInChunks(orders,
+                "insert into orders (order_id, member_id, delivery_id, order_date, status, total_price)" +
+                        " select x, mod(x - 1, " + members + ") + 1, x, dateadd('SECOND', -x, current_timestamp)," +
+                        " case when mod(x, 10) = 0 then 'CANCEL' else 'ORDER' end," +
+                        " " + orderTotalPrice() +       // 아래 order_item 합계와 같은 값
+                        " from system_range(?, ?)");
+        insertInChunks(orders,
+                "insert into order_item (order_item_id, order_id, item_id, order_price, count, stock_reconciled)" +
+                        " select (o.x - 1) * " + itemsPerOrder + " + k.x, o.x, mod(o.x + k.x, " + items + ") + 1, 10000, k.x, true" +
+                        " from system_range(?, ?) o" +
+                        " cross join system_range(1, " + itemsPerOrder + ") k");
+
+        restartSequence("member_seq", "member", "member_id");
+        restartSequence("member_name_token_seq", "member_name_token", "member_name_token_id");
+        restartSequence("item_seq", "item", "item_id");
+        restartSequence("delivery_seq", "delivery", "delivery_id");
+        restartSequence("orders_seq", "orders", "order_id");
+        restartSequence("order_item_seq", "order_item", "order_item_id");
+        jdbcTemplate.execute("analyze");
+
+        log.info("seed 완료 : 회원 {}, 상품 {}, 주문 {} (주문당 상품 {}) {}ms",
+                members, items, orders, itemsPerOrder, System.currentTimeMillis() - start);
+
+        itemSearchService.reindex();     // SQL 로 넣은 상품은 검색 인덱스에 자동으로 들어가지 않는다.
+    }
+
+    // 주문상품 k 번째 : order_price 10000, count k ⇒ 10000 * (1 + 2 + ... + itemsPerOrder)
+    private long orderTotalPrice() {
+        return 10000L * itemsPerOrder * (itemsPerOrder + 1) / 2;
+    }
+
+    // 1 ~ total 을 chunkSize 씩 나눠서 실행 (한 문장이 너무 크면 H2 undo log 가 커진다.) ⇒ auto-commit
+    private void insertInChunks(long total, String sql) {
+        for (long from = 1; from <= total; from += chunkSize) {
+            long to = Math.min(from + chunkSize - 1, total);
+            int inserted = jdbcTemplate.update(sql, from, to);
+            log.debug("seed {} ~ {} : {} rows", from, to, inserted);
+        }
+    }
+
+    // pooled : 시퀀스 값이 id 범위의 끝이므로, allocationSize(50) 만큼 더 띄워서 시작해야 기존 id 와 겹치지 않는다.
+    private void restartSequence(String sequence, String table, String idColumn) {
+        Long maxId = jdbcTemplate.queryForObject("select coalesce(max(" + idColumn + "), 0) from " + table, Long.class);
+        jdbcTemplate.execute("alter sequence " + sequence + " restart with " + (maxId + 51));
+    }
+}
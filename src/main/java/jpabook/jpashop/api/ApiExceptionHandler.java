@@ -0,0 +1,24 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.exception.InvalidRequestException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * API 예외 → 응답 코드
+ * 잘못된 요청 값(검색 조건 없음, 잘못된 커서 등)은 InvalidRequestException 으로 던진다. ⇒ 500 이 아니라 400
+ * IllegalArgumentException 은 매핑하지 않는다. (JPA/Hibernate 가 잘못된 JPQL, 파라미터 이름 같은 서버 버그에도 던진다. ⇒ 500, 메시지는 응답에 나가지 않는다.)
+ */
+@Slf4j
+@RestControllerAdvice(basePackages = "jpabook.jpashop.api")
+public class ApiExceptionHandler {
+
+    @ExceptionHandler(InvalidRequestException.class)
+    public ProblemDetail badRequest(InvalidRequestException e) {
+        log.debug("잘못된 요청: {}", e.getMessage());
+        return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+}
@@ -0,0 +1,100 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.service.CategoryHierarchyService;
+import jpabook.jpashop.service.CategoryNode;
+import jpabook.jpashop.service.CategoryService;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RestController
+@RequiredArgsConstructor
+public class CategoryApiController {
+
+    private final CategoryHierarchyService categoryHierarchyService;
+    private final CategoryService categoryService;
+
+    // 카테고리 트리 전체 (메모리 스냅샷, 쿼리 0~1번)
+    @GetMapping("/api/v1/categories")
+    public List<CategoryNode> categories() {
+        return categoryHierarchyService.getTree().getRoots();
+    }
+
+    // 하위 카테고리까지 포함한 상품 (쿼리 1번)
+    @GetMapping("/api/v1/categories/{categoryId}/items")
+    public Result<List<CategoryItemDto>> items(@PathVariable("categoryId") Long categoryId) {
+        List<CategoryItemDto> collect = categoryHierarchyService.findItemsInSubtree(categoryId).stream()
+                .map(CategoryItemDto::new)
+                .collect(Collectors.toList());
+        return new Result<>(collect.size(), collect);
+    }
+
+    // 카테고리에 직접 연결된 상품 (페이징)
+    @GetMapping("/api/v1/categories/{categoryId}/items/direct")
+    public Result<List<CategoryItemDto>> directItems(@PathVariable("categoryId") Long categoryId,
+                                                     @RequestParam(value = "offset", defaultValue = "0") int offset,
+                                                     @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        List<CategoryItemDto> collect = categoryService.findItems(categoryId, offset, limit).stream()
+                .map(CategoryItemDto::new)
+                .collect(Collectors.toList());
+        return new Result<>(collect.size(), collect);
+    }
+
+    @PostMapping("/api/v1/categories/{categoryId}/items")
+    public UpdateCategoryItemsResponse assignItems(@PathVariable("categoryId") Long categoryId,
+                                                   @RequestBody @Valid CategoryItemsRequest request) {
+        return new UpdateCategoryItemsResponse(categoryService.assignItems(categoryId, request.getItemIds()));
+    }
+
+    @PostMapping("/api/v1/categories/{categoryId}/items/unassign")
+    public UpdateCategoryItemsResponse unassignItems(@PathVariable("categoryId") Long categoryId,
+                                                     @RequestBody @Valid CategoryItemsRequest request) {
+        return new UpdateCategoryItemsResponse(categoryService.unassignItems(categoryId, request.getItemIds()));
+    }
+
+    @PostMapping("/api/v1/categories/{categoryId}/items/move")
+    public UpdateCategoryItemsResponse moveItems(@PathVariable("categoryId") Long categoryId,
+                                                 @RequestParam("to") Long toCategoryId,
+                                                 @RequestBody @Valid CategoryItemsRequest request) {
+        return new UpdateCategoryItemsResponse(categoryService.moveItems(categoryId, toCategoryId, request.getItemIds()));
+    }
+
+    @Data
+    static class CategoryItemsRequest {
+        @NotEmpty
+        private List<Long> itemIds;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class UpdateCategoryItemsResponse {
+        private int updated;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class Result<T> {
+        private int count;
+        private T data;
+    }
+
+    @Data
+    static class CategoryItemDto {
+        private Long itemId;
+        private String name;
+        private int price;
+
+        public CategoryItemDto(Item item) {
+            itemId = item.getId();
+            name = item.getName();
+            price = item.getPrice();
+        }
+    }
+}
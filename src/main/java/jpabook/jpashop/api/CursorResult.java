@@ -0,0 +1,50 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.exception.InvalidRequestException;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * 키셋(seek) 페이징 응답
+ * nextCursor 는 마지막 order_id 를 감싼 불투명(opaque) 문자열이다. 클라이언트는 값을 해석하지 말고 다음 요청의 after 로 그대로 넘긴다.
+ * 더 이상 다음 페이지가 없으면 nextCursor 는 null 이다.
+ */
+@Data
+@AllArgsConstructor
+public class CursorResult<T> {
+
+    private int count;
+    private String nextCursor;
+    private List<T> data;
+
+    private static final String PREFIX = "o:";
+
+    public static <T> CursorResult<T> of(List<T> data, Long lastId, int limit) {
+        String nextCursor = (data.size() < limit || lastId == null) ? null : encode(lastId);
+        return new CursorResult<>(data.size(), nextCursor, data);
+    }
+
+    public static String encode(Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!raw.startsWith(PREFIX)) {
+                throw new InvalidRequestException("잘못된 커서입니다.");
+            }
+            return Long.valueOf(raw.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {      // Base64, NumberFormatException
+            throw new InvalidRequestException("잘못된 커서입니다.", e);
+        }
+    }
+}
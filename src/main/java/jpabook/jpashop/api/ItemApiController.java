@@ -0,0 +1,34 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.service.ItemSearchDto;
+import jpabook.jpashop.service.ItemSearchService;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.search.engine.search.query.SearchResult;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class ItemApiController {
+
+    private final ItemSearchService itemSearchService;
+
+    @GetMapping("/api/v1/items/search")
+    public ItemSearchResponse search(@RequestParam("q") String keyword,
+                                     @RequestParam(value = "offset", defaultValue = "0") int offset,
+                                     @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        SearchResult<ItemSearchDto> result = itemSearchService.search(keyword, offset, limit);
+        return new ItemSearchResponse(result.total().hitCount(), result.took().toMillis(), result.hits());
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class ItemSearchResponse {
+        private long total;
+        private long tookMs;
+        private List<ItemSearchDto> data;
+    }
+}
@@ -1,72 +1,68 @@
 package jpabook.jpashop.api;
 
-import jpabook.jpashop.domain.Address;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import jakarta.servlet.http.HttpServletResponse;
 import jpabook.jpashop.domain.Order;
-import jpabook.jpashop.domain.OrderItem;
-import jpabook.jpashop.domain.OrderStatus;
-import jpabook.jpashop.repository.OrderRepository;
 import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.repository.order.OrderDtoCache;
+import jpabook.jpashop.repository.order.query.OrderFlatAssembler;
 import jpabook.jpashop.repository.order.query.OrderFlatDto;
-import jpabook.jpashop.repository.order.query.OrderItemQueryDto;
 import jpabook.jpashop.repository.order.query.OrderQueryDto;
 import jpabook.jpashop.repository.order.query.OrderQueryRepository;
-import lombok.Getter;
+import jpabook.jpashop.service.OrderLineDto;
+import jpabook.jpashop.service.OrderRequestDto;
+import jpabook.jpashop.service.OrderService;
+import jpabook.jpashop.service.query.OrderDto;
+import jpabook.jpashop.service.query.OrderQueryService;
+import jpabook.jpashop.service.query.OrderSearchDto;
+import jpabook.jpashop.service.query.OrderSearchPage;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
 import lombok.RequiredArgsConstructor;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestParam;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.bind.annotation.*;
 
-import java.time.LocalDateTime;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.stream.Collectors;
 
-import static java.util.stream.Collectors.*;
-
 @RestController
 @RequiredArgsConstructor
 public class OrderApiController {
 
-    private final OrderRepository orderRepository;
     private final OrderQueryRepository orderQueryRepository;
+    private final OrderQueryService orderQueryService;
+    private final OrderDtoCache orderDtoCache;
+    private final OrderService orderService;
+    private final ObjectMapper objectMapper;
+
+    private static final int EXPORT_CHUNK_SIZE = 500;
 
     @GetMapping("/api/v1/orders")
     public List<Order> ordersV1() {
-        List<Order> all = orderRepository.findAllByString(new OrderSearch());
-
-        for (Order order : all) {
-            // 강제 초기화 ⇒ 실제로 해당 값이 필요할 때 추가적인 데이터베이스 쿼리가 발생하지 않도록 하기 위해 사용(미리 로드)
-            order.getMember().getName();
-            order.getDelivery().getAddress();
-
-            List<OrderItem> orderItems = order.getOrderItems();
-            orderItems.stream().forEach(o -> o.getItem().getName());
-        }
-
-        return all;
+        // 강제 초기화 ⇒ 실제로 해당 값이 필요할 때 추가적인 데이터베이스 쿼리가 발생하지 않도록 하기 위해 사용(미리 로드)
+        // OSIV 가 꺼져 있으면 트랜잭션 밖에서는 초기화할 수 없으므로 OrderQueryService 안에서 한다.
+        return orderQueryService.findOrderEntities();
     }
 
     // 쿼리가 너무 많이 실행된다.
     @GetMapping("/api/v2/orders")
     public List<OrderDto> ordersV2() {
-        List<Order> orders = orderRepository.findAllByString(new OrderSearch());
-
-        List<OrderDto> result = orders.stream()
-                .map(o -> new OrderDto(o))
-                .collect(Collectors.toList());
-
-        return result;
+        return orderQueryService.findOrders();
     }
 
     // 패치 조인으로 SQL 이 한번만 실행된다.
     @GetMapping("/api/v3/orders")
     public List<OrderDto> ordersV3() {
-        List<Order> orders = orderRepository.findAllWithItem();
-
-        List<OrderDto> result = orders.stream()
-                .map(o -> new OrderDto(o))
-                .collect(Collectors.toList());
-
-        return result;
+        return orderQueryService.findOrdersWithItem();
     }
 
     /* ⭐
@@ -82,13 +78,45 @@ public class OrderApiController {
             @RequestParam(value = "limit", defaultValue = "100") int limit
             ) {
 
-        List<Order> orders = orderRepository.findAllWithMemberDelivery(offset, limit);
+        return orderQueryService.findOrdersWithMemberDelivery(offset, limit);
+    }
 
-        List<OrderDto> result = orders.stream()
-                .map(o -> new OrderDto(o))
-                .collect(Collectors.toList());
+    /* v3 + 페이징 ⇒ 페이지의 order_id 를 먼저 DB 에서 페이징해서 가져오고, 그 id 들만 컬렉션까지 패치 조인한다.
+    * 쿼리 2번으로 v3 처럼 컬렉션까지 한 번에 가져오면서도 메모리 페이징이 아닌 DB 페이징이 된다. */
+    @GetMapping("/api/v3.2/orders")
+    public List<OrderDto> ordersV3_2_page(
+            @RequestParam(value = "offset", defaultValue = "0") int offset,
+            @RequestParam(value = "limit", defaultValue = "100") int limit
+            ) {
 
-        return result;
+        return orderQueryService.findOrdersWithItem(offset, limit);
+    }
+
+    /* v3.1 의 키셋(seek) 페이징 버전 ⇒ ?after={nextCursor}&limit=
+    * offset 대신 마지막으로 받은 주문의 id 를 기준으로 다음 페이지를 조회하기 때문에 깊은 페이지도 첫 페이지와 비용이 같다.
+    * 컬렉션은 v3.1 과 동일하게 지연 로딩 + default_batch_fetch_size 로 최적화된다. */
+    @GetMapping("/api/v3.1/orders/keyset")
+    public CursorResult<OrderDto> ordersV3_keyset(
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", defaultValue = "100") int limit
+            ) {
+
+        List<OrderDto> result = orderQueryService.findOrdersWithMemberDelivery(CursorResult.decode(after), limit);
+
+        Long lastId = result.isEmpty() ? null : result.get(result.size() - 1).getOrderId();
+        return CursorResult.of(result, lastId, limit);
+    }
+
+    /* 주문 검색 (기간, 주문/배송 상태, 회원 이름, 상품, 금액 범위 + 정렬)
+    * ex) /api/v1/orders/search?orderStatus=ORDER&orderDateFrom=2026-01-01T00:00:00&minTotalPrice=30000&sort=TOTAL_PRICE_DESC
+    * 다음 페이지는 응답의 nextCursor 를 after 로 넘긴다. (커서는 같은 정렬에서만 유효하다.) */
+    @GetMapping("/api/v1/orders/search")
+    public OrderSearchPage<OrderSearchDto> searchOrders(
+            @ModelAttribute OrderSearch orderSearch,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", defaultValue = "100") int limit
+            ) {
+        return orderQueryService.search(orderSearch, after, limit);
     }
 
     /* ToOne 관계들을 먼저 조회하고, ToMany(1:N) 관계는 각각 별도로 처리한다.
@@ -96,13 +124,63 @@ public class OrderApiController {
     *     ToMany 관계는 조인하면 row 수가 증가하기 때문이다. */
     @GetMapping("/api/v4/orders")
     public List<OrderQueryDto> ordersV4() {
-        return orderQueryRepository.findOrderQueryDtos();
+        return orderQueryService.findOrderQueryDtos();
     }
 
     @GetMapping("/api/v5/orders")
     public List<OrderQueryDto> ordersV5() {
         // 실제 변수명을 이렇게 짓진 않는다.
-        return orderQueryRepository.findAllByDto_optimization();
+        return orderQueryService.findAllByDto();
+    }
+
+    // V5 + DTO 캐시 (주문 id 키셋 한 페이지, 캐시에 없는 주문만 V5 방식으로 조회)
+    @GetMapping("/api/v5.1/orders")
+    public CursorResult<OrderQueryDto> ordersV5_cached(
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", defaultValue = "100") int limit
+            ) {
+        List<OrderQueryDto> result = orderDtoCache.findAllByDto(CursorResult.decode(after), limit);
+
+        Long lastId = result.isEmpty() ? null : result.get(result.size() - 1).getOrderId();
+        return CursorResult.of(result, lastId, limit);
+    }
+
+    /* 전체 주문 export (NDJSON : 한 줄에 주문 하나)
+    * v5 와 같은 방식(루트 1번 + 컬렉션 IN 쿼리)을 chunk 단위로 반복하면서 List<OrderQueryDto> 를 만들지 않고 응답 스트림에 바로 쓴다.
+    * ⇒ 주문이 몇 건이든 힙 사용량이 일정하다. */
+    @GetMapping(value = "/api/v5/orders/export.ndjson", produces = "application/x-ndjson")
+    public void exportOrdersNdjson(HttpServletResponse response) throws IOException {
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        ObjectWriter writer = objectMapper.writer();
+        OutputStream out = response.getOutputStream();
+        orderQueryRepository.streamAllByDto(EXPORT_CHUNK_SIZE, o -> {
+            try {
+                out.write(writer.writeValueAsBytes(o));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        out.flush();
+    }
+
+    // 전체 주문 export (JSON 배열) ⇒ [ {...}, {...} ]
+    @GetMapping(value = "/api/v5/orders/export.json", produces = "application/json")
+    public void exportOrdersJson(HttpServletResponse response) throws IOException {
+        response.setContentType("application/json");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        try (SequenceWriter writer = objectMapper.writer().writeValuesAsArray(response.getOutputStream())) {
+            orderQueryRepository.streamAllByDto(EXPORT_CHUNK_SIZE, o -> {
+                try {
+                    writer.write(o);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
     }
 
     // 쿼리는 한번이지만 조인으로 인해 중복 데이터가 추가되므로 상황에 따라 V5보다 더 느릴 수도 있다. & 페이징 불가능.
@@ -110,54 +188,76 @@ public class OrderApiController {
     public List<OrderQueryDto> ordersV6() {
         List<OrderFlatDto> flats = orderQueryRepository.findAllByDto_flat();
 
-        return flats.stream()
-                .collect(groupingBy(o -> new OrderQueryDto(o.getOrderId(),
-                                o.getName(), o.getOrderDate(), o.getOrderStatus(), o.getAddress()),
-                        mapping(o -> new OrderItemQueryDto(o.getOrderId(),
-                                o.getItemName(), o.getOrderPrice(), o.getCount()), toList())
-                )).entrySet().stream()
-                .map(e -> new OrderQueryDto(e.getKey().getOrderId(),
-                        e.getKey().getName(), e.getKey().getOrderDate(), e.getKey().getOrderStatus(),
-                        e.getKey().getAddress(), e.getValue()))
-                .collect(toList());
+        // groupingBy(new OrderQueryDto(...)) 대신 orderId 로만 묶어서 주문당 한 번만 조립한다. (건수가 많으면 병렬로 조립)
+        return OrderFlatAssembler.assemble(flats);
     }
     
-    @Getter
-    static class OrderDto {
-
-        private Long orderId;
-        private String name;
-        private LocalDateTime orderDate;
-        private OrderStatus orderStatus;
-        private Address address;
-        private List<OrderItemDto> orderItems;
-
-        public OrderDto(Order order) {
-            orderId = order.getId();
-            name = order.getMember().getName();
-            orderDate = order.getOrderDate();
-            orderStatus = order.getStatus();
-            address = order.getDelivery().getAddress();
-            // DTO 안에 Entity 가 있으면 안된다. 완전히 Entity 의존을 없애야한다. ⇒ OrderItemDto 따로 생성해서 사용
-            orderItems = order.getOrderItems().stream()
-                    .map(orderItem -> new OrderItemDto(orderItem))
-                    .collect(Collectors.toList());
-        }
+    /* 대량 주문 (주문 여러 개, 주문마다 상품 여러 개)
+    * 회원/상품은 IN 쿼리로 한 번에 조회하고, insert 는 JDBC batch 로 묶어서 실행된다. ⇒ OrderService.orders 참고 */
+    @PostMapping("/api/v1/orders")
+    public CreateOrdersResponse createOrders(@RequestBody @Valid CreateOrdersRequest request) {
+        List<OrderRequestDto> requests = request.getOrders().stream()
+                .map(o -> new OrderRequestDto(o.getMemberId(), o.getItems().stream()
+                        .map(i -> new OrderLineDto(i.getItemId(), i.getCount()))
+                        .collect(Collectors.toList())))
+                .collect(Collectors.toList());
+
+        List<Long> orderIds = orderService.orders(requests);
+        return new CreateOrdersResponse(orderIds.size(), orderIds);
+    }
+
+    @Data
+    static class CreateOrdersRequest {
+        @NotEmpty
+        private List<@Valid CreateOrderRequest> orders;
     }
 
-    @Getter
-    static class OrderItemDto {
+    @Data
+    static class CreateOrderRequest {
+        @NotNull
+        private Long memberId;
+        @NotEmpty
+        private List<@Valid CreateOrderItemRequest> items;
+    }
 
-        private String itemName;
-        private int orderPrice;
+    @Data
+    static class CreateOrderItemRequest {
+        @NotNull
+        private Long itemId;
+        @Positive
         private int count;
+    }
 
-        public OrderItemDto(OrderItem orderItem) {
-            itemName = orderItem.getItem().getName();
-            orderPrice = orderItem.getOrderPrice();
-            count = orderItem.getCount();
-        }
+    @Data
+    @AllArgsConstructor
+    static class CreateOrdersResponse {
+        private int count;
+        private List<Long> orderIds;
     }
 
+    /* 대량 주문 취소 (주문 id 목록 또는 검색 조건)
+    * 재고는 상품별로 합쳐서 한 번씩, 주문 상태는 update 한 번으로 처리한다. ⇒ OrderService.cancelOrders 참고 */
+    @PostMapping("/api/v1/orders/cancel")
+    public CancelOrdersResponse cancelOrders(@RequestBody @Valid CancelOrdersRequest request) {
+        int canceled = orderService.cancelOrders(request.getOrderIds());
+        return new CancelOrdersResponse(canceled);
+    }
+
+    @PostMapping("/api/v1/orders/cancel-by-search")
+    public CancelOrdersResponse cancelOrdersBySearch(@RequestBody OrderSearch orderSearch) {
+        int canceled = orderService.cancelOrders(orderSearch);
+        return new CancelOrdersResponse(canceled);
+    }
 
+    @Data
+    static class CancelOrdersRequest {
+        @NotEmpty
+        private List<Long> orderIds;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class CancelOrdersResponse {
+        private int canceled;
+    }
 }
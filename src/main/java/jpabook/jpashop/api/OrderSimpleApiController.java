@@ -1,20 +1,26 @@
 package jpabook.jpashop.api;
 
-import jpabook.jpashop.domain.Address;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.servlet.http.HttpServletResponse;
 import jpabook.jpashop.domain.Order;
-import jpabook.jpashop.domain.OrderStatus;
 import jpabook.jpashop.repository.OrderRepository;
 import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.repository.order.OrderDtoCache;
 import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryDto;
 import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryRepository;
-import lombok.Data;
+import jpabook.jpashop.service.query.OrderQueryService;
+import jpabook.jpashop.service.query.SimpleOrderDto;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.time.LocalDateTime;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * (연관 정보)
@@ -28,7 +34,12 @@ import java.util.stream.Collectors;
 public class OrderSimpleApiController {
 
     private final OrderRepository orderRepository;
+    private final OrderQueryService orderQueryService;
     private final OrderSimpleQueryRepository orderSimpleQueryRepository;
+    private final OrderDtoCache orderDtoCache;
+    private final ObjectMapper objectMapper;
+
+    private static final int EXPORT_CHUNK_SIZE = 1000;
 
     // 무한루프에 빠진다. 해결하려면 Order 와 양방향이 걸려있는 곳에 전부 @JsonIgnore 을 추가해줘야 한다. 둘 중에 하나는 끊어줘야하기 때문.
     // 위 문제를 해결해도 지연로딩때문에 또 다른 문제가 생기는데, Hibernate5Module 라이브러리를 설치해서 지연로딩일 경우에는 JSON 라이브러리에게 아무것도 뿌리지 말라고 해서 해결해야 한다.
@@ -43,25 +54,24 @@ public class OrderSimpleApiController {
     public List<SimpleOrderDto> ordersV2() {
         // ORDER 2개 (N = 2)
         // 1 + N ⇒ 1 + MEMBER N + Delivery N = 5
-        List<Order> orders = orderRepository.findAllByString(new OrderSearch());
-
-        List<SimpleOrderDto> result = orders.stream()
-                .map(o -> new SimpleOrderDto(o))
-                .collect(Collectors.toList());
-
-        return result;
+        return orderQueryService.findSimpleOrders();
     }
 
     @GetMapping("/api/v3/simple-orders")
     public List<SimpleOrderDto> ordersV3() {
         // 패치 조인을 이용해서 쿼리가 한 번만 실행된다.
-        List<Order> orders = orderRepository.findAllWithMemberDelivery();
+        return orderQueryService.findSimpleOrdersWithMemberDelivery();
+    }
 
-        List<SimpleOrderDto> result = orders.stream()
-                .map(o -> new SimpleOrderDto(o))
-                .collect(Collectors.toList());
+    // v3 + 키셋(seek) 페이징 ⇒ ?after={nextCursor}&limit=
+    @GetMapping("/api/v3/simple-orders/keyset")
+    public CursorResult<SimpleOrderDto> ordersV3_keyset(
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        List<SimpleOrderDto> result = orderQueryService.findSimpleOrdersWithMemberDelivery(CursorResult.decode(after), limit);
 
-        return result;
+        Long lastId = result.isEmpty() ? null : result.get(result.size() - 1).getOrderId();
+        return CursorResult.of(result, lastId, limit);
     }
 
     // select 절이 간략해졌지만 V3의 패치 조인이 더 좋다. ⇒ 성능을 좌우하는 것은 select 절이 아니다. select 절은 차이가 미비하다.
@@ -71,21 +81,35 @@ public class OrderSimpleApiController {
         return orderSimpleQueryRepository.findOrderDtos();
     }
 
-    @Data
-    static class SimpleOrderDto {
-        private Long orderId;
-        private String name;
-        private LocalDateTime orderDate;
-        private OrderStatus orderStatus;
-        private Address address;
-
-        public SimpleOrderDto(Order order) {
-            orderId = order.getId();
-            name = order.getMember().getName();     // LAZY 초기화 ⇒ memberId 를 통해 영속성 컨텍스트에서 찾아보고 없으면 DB 쿼리를 날리는 것
-            orderDate = order.getOrderDate();
-            orderStatus = order.getStatus();
-            address = order.getDelivery().getAddress();     // LAZY 초기화
-        }
+    // V4 + DTO 캐시 : 주문 id 한 페이지(키셋, 최신순)만 조회하고, 캐시에 없는 주문만 IN 쿼리로 조회한다.
+    @GetMapping("/api/v4.1/simple-orders")
+    public CursorResult<OrderSimpleQueryDto> ordersV4_cached(
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        List<OrderSimpleQueryDto> result = orderDtoCache.findOrderDtos(CursorResult.decode(after), limit);
+
+        Long lastId = result.isEmpty() ? null : result.get(result.size() - 1).getOrderId();
+        return CursorResult.of(result, lastId, limit);
+    }
+
+    /* 전체 주문 export (NDJSON, StatelessSession)
+    * 영속성 컨텍스트 없이 order_id 키셋으로 chunk 씩 읽고 바로 응답 스트림에 쓴다. ⇒ 변경 감지 스냅샷/1차 캐시가 없어서 주문이 많아도 힙 사용량이 일정하다. */
+    @GetMapping(value = "/api/v3/simple-orders/export.ndjson", produces = "application/x-ndjson")
+    public void exportOrdersNdjson(HttpServletResponse response) throws IOException {
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        ObjectWriter writer = objectMapper.writer();
+        OutputStream out = response.getOutputStream();
+        orderQueryService.forEachSimpleOrder(EXPORT_CHUNK_SIZE, o -> {
+            try {
+                out.write(writer.writeValueAsBytes(o));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        out.flush();
     }
 
 }
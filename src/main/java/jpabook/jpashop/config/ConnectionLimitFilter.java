@@ -0,0 +1,96 @@
+package jpabook.jpashop.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DB 커넥션 수만큼만 요청을 동시에 처리하는 필터 (virtual 프로필)
+ * 가상 스레드는 요청마다 새로 만들어지므로 Tomcat 스레드 수(200)가 더 이상 동시 처리 수를 막아주지 않는다.
+ * 그러면 수천 개의 요청이 동시에 Hikari 풀에서 커넥션을 기다리다가 connection-timeout(30초)으로 실패한다.
+ * 요청 단위로 커넥션 풀 크기만큼의 permit 을 나눠주고, 나머지는 여기서 줄을 세운다. (가상 스레드는 기다리는 비용이 거의 없다.)
+ * OSIV 가 켜져 있으면 요청 하나가 커넥션을 응답이 끝날 때까지 잡고 있으므로 permit 도 요청이 끝날 때 반납한다.
+ * acquire-timeout 안에 permit 을 못 받으면 503 을 응답한다.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "jpashop.connection-limit.enabled", havingValue = "true")
+public class ConnectionLimitFilter extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+    private final int maxConcurrency;
+    private final Duration acquireTimeout;
+
+    public ConnectionLimitFilter(DataSource dataSource,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${jpashop.connection-limit.acquire-timeout:10s}") Duration acquireTimeout) throws SQLException {
+        this(poolSize(dataSource), acquireTimeout);
+        Gauge.builder("jpashop.connection_limit.available", permits, Semaphore::availablePermits).register(meterRegistry);
+        Gauge.builder("jpashop.connection_limit.waiting", permits, Semaphore::getQueueLength).register(meterRegistry);
+    }
+
+    ConnectionLimitFilter(int maxConcurrency, Duration acquireTimeout) {
+        this.maxConcurrency = maxConcurrency;
+        this.permits = new Semaphore(maxConcurrency, true);     // 공정 모드 ⇒ 먼저 온 요청부터
+        this.acquireTimeout = acquireTimeout;
+        log.info("요청 동시 처리 제한 : {} (DB 커넥션 풀 크기)", maxConcurrency);
+    }
+
+    // p6spy 가 감싸고 있어도 unwrap 으로 Hikari 설정을 읽는다.
+    private static int poolSize(DataSource dataSource) throws SQLException {
+        return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            return;
+        }
+        if (!acquired) {
+            response.setHeader("Retry-After", "1");
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "동시 요청이 너무 많습니다.");
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+
+    // 정적 리소스는 DB 를 쓰지 않는다.
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return uri.startsWith("/css/") || uri.startsWith("/js/") || uri.startsWith("/actuator/");
+    }
+
+    int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+}
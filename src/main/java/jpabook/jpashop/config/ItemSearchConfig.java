@@ -0,0 +1,48 @@
+package jpabook.jpashop.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.Map;
+
+/**
+ * Hibernate Search 설정
+ * - jpashop.search.index-dir 가 있으면 로컬 파일 인덱스, 없으면 메모리 인덱스 (테스트)
+ * - DB 를 시작할 때마다 새로 만드는 경우(메모리 DB, 예: replica 프로필) 파일 인덱스도 새로 만든다.
+ *   (이전 실행의 문서가 남아 있으면 다시 쓰인 상품 id 로 엉뚱한 상품이 검색된다.) ⇒ jpashop.search.reset-on-startup 으로 직접 지정할 수도 있다.
+ * application.yml 에 hibernate.search.* 를 직접 지정하면 그 값이 우선이다.
+ */
+@Component
+public class ItemSearchConfig implements HibernatePropertiesCustomizer {
+
+    private final String indexDir;
+    private final boolean resetOnStartup;
+
+    public ItemSearchConfig(@Value("${jpashop.search.index-dir:}") String indexDir,
+                            @Value("${jpashop.search.reset-on-startup:}") String resetOnStartup,
+                            @Value("${spring.datasource.url:}") String datasourceUrl) {
+        this.indexDir = indexDir;
+        this.resetOnStartup = StringUtils.hasText(resetOnStartup)
+                ? Boolean.parseBoolean(resetOnStartup)
+                : datasourceUrl.startsWith("jdbc:h2:mem:");     // 지정하지 않으면 DB 종류로 판단
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.putIfAbsent("hibernate.search.backend.analysis.configurer",
+                "class:" + ItemSearchAnalysisConfigurer.class.getName());
+
+        if (StringUtils.hasText(indexDir)) {
+            hibernateProperties.putIfAbsent("hibernate.search.backend.directory.type", "local-filesystem");
+            hibernateProperties.putIfAbsent("hibernate.search.backend.directory.root", indexDir);
+        } else {
+            hibernateProperties.putIfAbsent("hibernate.search.backend.directory.type", "local-heap");
+        }
+
+        if (resetOnStartup) {
+            hibernateProperties.putIfAbsent("hibernate.search.schema_management.strategy", "drop-and-create");
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package jpabook.jpashop.config;
+
+import jpabook.jpashop.service.ItemSearchService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * 상품 검색 인덱스 전체 재생성 (운영자용 actuator 엔드포인트)
+ * 상품 테이블 전체를 다시 읽는 무거운 작업이라 공개 API 로 두지 않는다.
+ * management.endpoints.web.exposure.include 에 itemsearchindex 를 넣어야만 노출된다. ⇒ POST /actuator/itemsearchindex (관리 포트/내부망에서만)
+ */
+@Slf4j
+@Component
+@Endpoint(id = "itemsearchindex")
+@RequiredArgsConstructor
+public class ItemSearchIndexEndpoint {
+
+    private final ItemSearchService itemSearchService;
+
+    @WriteOperation
+    public void reindex() throws InterruptedException {
+        log.info("상품 검색 인덱스 재생성 시작");
+        itemSearchService.reindex();
+        log.info("상품 검색 인덱스 재생성 완료");
+    }
+}
@@ -0,0 +1,45 @@
+package jpabook.jpashop.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * HQL 쿼리 plan 캐시 hit/miss (hibernate.generate_statistics: true 일 때만 값이 쌓인다.)
+ * miss 는 HQL 문자열을 처음 보거나 캐시에서 밀려나서 다시 파싱/해석한 횟수다. ⇒ 워밍업 뒤에도 miss 가 계속 늘면 호출마다 JPQL 문자열이 달라지고 있다는 뜻이다.
+ * 네임드 쿼리는 로딩 시점에 해석해 두므로 이 캐시를 거치지 않는다.
+ */
+@Component
+@RequiredArgsConstructor
+public class QueryPlanCacheMetrics {
+
+    private final EntityManagerFactory emf;
+    private final MeterRegistry meterRegistry;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void bindQueryPlanMetrics() {
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+
+        FunctionCounter.builder("jpashop.query_plan_cache.requests", statistics, Statistics::getQueryPlanCacheHitCount)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("jpashop.query_plan_cache.requests", statistics, Statistics::getQueryPlanCacheMissCount)
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("jpashop.query_plan_cache.hit_ratio", statistics, QueryPlanCacheMetrics::hitRatio)
+                .register(meterRegistry);
+    }
+
+    static double hitRatio(Statistics statistics) {
+        long hits = statistics.getQueryPlanCacheHitCount();
+        long total = hits + statistics.getQueryPlanCacheMissCount();
+        return total == 0 ? Double.NaN : (double) hits / total;
+    }
+}
@@ -0,0 +1,20 @@
+package jpabook.jpashop.config;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * JPAQueryFactory 는 싱글톤으로 하나만 만든다.
+ * 주입받는 EntityManager 는 스프링이 만든 프록시라 트랜잭션(스레드)마다 실제 EntityManager 로 연결된다. ⇒ 여러 스레드에서 같이 써도 안전하다.
+ * (호출마다 new JPAQueryFactory(em) 를 만들면 JPQLTemplates 를 매번 찾는 비용과 객체 생성 비용이 생긴다.)
+ */
+@Configuration
+public class QuerydslConfig {
+
+    @Bean
+    public JPAQueryFactory jpaQueryFactory(EntityManager em) {
+        return new JPAQueryFactory(em);
+    }
+}
@@ -0,0 +1,105 @@
+package jpabook.jpashop.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * 로컬에서 primary → replica 복제를 흉내낸다. (H2 두 개, replica 프로필)
+ * replica 에 primary 테이블을 linked table(replication 스키마)로 연결해 두고, interval 마다 테이블 전체를 트랜잭션 하나로 복사한다.
+ * ⇒ replica 는 최대 interval(+ 복사 시간) 만큼 뒤처지고, 복사 중에도 이전 커밋 상태를 보여준다.
+ * 테이블 전체를 복사하므로 InitDb 정도의 작은 데이터용이다. (seed 의 대량 데이터에는 쓰지 않는다.)
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "jpashop.replica.simulator.enabled", havingValue = "true")
+public class H2ReplicationSimulator {
+
+    private static final String LINK_SCHEMA = "replication";
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final TransactionTemplate replicaTransaction;
+    private final DriverManagerDataSource replicaDataSource;
+    private final String primaryUrl;
+    private final String username;
+    private final String password;
+    private final String[] locations;
+
+    private List<String> tables;
+
+    public H2ReplicationSimulator(@Value("${spring.datasource.url}") String primaryUrl,
+                                  @Value("${spring.datasource.username:sa}") String username,
+                                  @Value("${spring.datasource.password:}") String password,
+                                  @Value("${jpashop.replica.url}") String replicaUrl,
+                                  @Value("${spring.flyway.locations:classpath:db/migration}") String[] locations) {
+        this.primaryUrl = primaryUrl;
+        this.username = username;
+        this.password = password;
+        this.locations = locations;
+        // replica 풀(읽기 전용)과 별개의 쓰기 커넥션
+        this.replicaDataSource = new DriverManagerDataSource(replicaUrl, username, password);
+        this.primary = new JdbcTemplate(new DriverManagerDataSource(primaryUrl, username, password));
+        this.replica = new JdbcTemplate(replicaDataSource);
+        this.replicaTransaction = new TransactionTemplate(new DataSourceTransactionManager(replicaDataSource));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        replicate();
+    }
+
+    @Scheduled(fixedDelayString = "${jpashop.replica.simulator.interval:1s}",
+            initialDelayString = "${jpashop.replica.simulator.interval:1s}")
+    public synchronized void replicate() {
+        if (tables == null) {
+            initialize();
+        }
+        long start = System.currentTimeMillis();
+        replicaTransaction.executeWithoutResult(status -> {
+            replica.execute("set referential_integrity false");
+            try {
+                for (String table : tables) {
+                    replica.update("delete from " + table);
+                    replica.update("insert into " + table + " select * from " + LINK_SCHEMA + "." + table);
+                }
+            } finally {
+                replica.execute("set referential_integrity true");
+            }
+        });
+        log.debug("replica 복제 {}개 테이블, {}ms", tables.size(), System.currentTimeMillis() - start);
+    }
+
+    // replica 스키마는 primary 와 같은 마이그레이션으로 만들고, primary 테이블마다 linked table 을 만든다.
+    private void initialize() {
+        Flyway.configure()
+                .dataSource(replicaDataSource)
+                .locations(locations)
+                .load()
+                .migrate();
+
+        List<String> found = primary.queryForList(
+                "select table_name from information_schema.tables" +
+                        " where table_schema = 'PUBLIC' and table_type = 'BASE TABLE'" +
+                        " and table_name <> 'flyway_schema_history'", String.class);
+
+        replica.execute("create schema if not exists " + LINK_SCHEMA);
+        for (String table : found) {
+            replica.execute("create linked table if not exists " + LINK_SCHEMA + "." + table +
+                    "('org.h2.Driver', '" + primaryUrl + "', '" + username + "', '" + password + "', 'PUBLIC', '" + table + "') readonly");
+        }
+        tables = found;
+        log.info("replica 복제 시작 : {}", tables);
+    }
+}
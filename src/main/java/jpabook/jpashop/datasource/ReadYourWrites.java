@@ -0,0 +1,139 @@
+package jpabook.jpashop.datasource;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * read-your-writes : 주문/회원가입을 한 사용자는 window 동안 readOnly 조회도 primary 에서 한다.
+ * (replica 에 아직 복제되지 않아서 방금 한 주문이 목록에 안 보이는 문제)
+ * 커밋 후에 쿠키로 "언제까지 primary" 를 내려주고, 다음 요청부터는 ReadYourWritesFilter 가 쿠키를 읽어서 현재 스레드에 표시한다.
+ * 로그인이 없어서 사용자 단위 대신 브라우저(쿠키) 단위로 고정한다.
+ * 쿠키 값은 "시각.서명" (서버 비밀키 HMAC-SHA256) ⇒ 클라이언트가 시각을 바꾸거나 만들어 낸 쿠키는 무시한다. (replica 를 건너뛰고 primary 에 부하를 몰지 못하게)
+ */
+@Component
+public class ReadYourWrites {
+
+    static final String COOKIE_NAME = "jpashop-primary-until";
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private static final ThreadLocal<Long> pinnedUntil = new ThreadLocal<>();
+
+    private final boolean enabled;
+    private final Duration window;
+    private final SecretKeySpec signingKey;
+
+    /**
+     * secret 이 비어 있으면 시작할 때마다 임의의 키를 만든다. ⇒ 재시작하거나 다른 인스턴스로 가면 쿠키가 무시된다. (replica 에서 조회할 뿐 틀리지는 않는다.)
+     * 인스턴스가 여러 대면 같은 secret 을 설정한다.
+     */
+    public ReadYourWrites(@Value("${jpashop.replica.enabled:false}") boolean enabled,
+                          @Value("${jpashop.replica.read-your-writes-window:5s}") Duration window,
+                          @Value("${jpashop.replica.read-your-writes-secret:}") String secret) {
+        this.enabled = enabled;
+        this.window = window;
+        this.signingKey = new SecretKeySpec(secretBytes(secret), HMAC_ALGORITHM);
+    }
+
+    // 쓰기 트랜잭션 안에서 호출 ⇒ 커밋된 뒤에 고정한다. (롤백되면 고정하지 않는다.)
+    public void markWritten() {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            pin();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                pin();
+            }
+        });
+    }
+
+    public boolean isPinned() {
+        Long until = pinnedUntil.get();
+        return until != null && System.currentTimeMillis() < until;
+    }
+
+    private void pin() {
+        long until = System.currentTimeMillis() + window.toMillis();
+        pinnedUntil.set(until);
+
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes && servletAttributes.getResponse() != null) {
+            Cookie cookie = new Cookie(COOKIE_NAME, until + "." + sign(until));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Math.max(1, window.toSeconds()));
+            HttpServletResponse response = servletAttributes.getResponse();
+            response.addCookie(cookie);
+        }
+    }
+
+    // 서명이 맞는 쿠키만 고정한다. (서명이 없거나 틀리면 무시) 서명된 시각도 window 보다 길게 잡히지 않도록 잘라낸다.
+    void pinFromCookie(String cookieValue) {
+        Long until = verifiedUntil(cookieValue);
+        if (until != null) {
+            pinnedUntil.set(Math.min(until, System.currentTimeMillis() + window.toMillis()));
+        }
+    }
+
+    private Long verifiedUntil(String cookieValue) {
+        if (cookieValue == null) {
+            return null;
+        }
+        int dot = cookieValue.indexOf('.');
+        if (dot < 0) {
+            return null;
+        }
+        try {
+            long until = Long.parseLong(cookieValue.substring(0, dot));
+            byte[] expected = sign(until).getBytes(StandardCharsets.US_ASCII);
+            byte[] actual = cookieValue.substring(dot + 1).getBytes(StandardCharsets.US_ASCII);
+            return MessageDigest.isEqual(expected, actual) ? until : null;      // 비교 시간으로 서명을 알아낼 수 없게
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private String sign(long until) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);      // Mac 은 스레드 안전하지 않다. ⇒ 호출마다 만든다.
+            mac.init(signingKey);
+            byte[] signature = mac.doFinal(Long.toString(until).getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("read-your-writes 쿠키 서명 실패", e);
+        }
+    }
+
+    private static byte[] secretBytes(String secret) {
+        if (secret != null && !secret.isBlank()) {
+            return secret.getBytes(StandardCharsets.UTF_8);
+        }
+        byte[] random = new byte[32];
+        new SecureRandom().nextBytes(random);
+        return random;
+    }
+
+    void clear() {
+        pinnedUntil.remove();
+    }
+}
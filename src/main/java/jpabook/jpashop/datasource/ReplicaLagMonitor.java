@@ -0,0 +1,65 @@
+package jpabook.jpashop.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * 복제 지연 측정
+ * primary 의 replica_heartbeat 에 현재 시각을 쓰고, replica 에 복제된 값과의 차이를 지연으로 본다.
+ * 지연이 max-lag 보다 크거나 replica 를 읽지 못하면 readOnly 트랜잭션도 primary 로 보낸다. (오래된 데이터를 보여주지 않도록)
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "jpashop.replica.enabled", havingValue = "true")
+public class ReplicaLagMonitor {
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final long maxLagMillis;
+
+    private volatile long lagMillis = Long.MAX_VALUE;     // 첫 측정 전에는 replica 를 쓰지 않는다.
+
+    public ReplicaLagMonitor(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                             @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                             @Value("${jpashop.replica.max-lag:2s}") Duration maxLag,
+                             MeterRegistry meterRegistry) {
+        this.primary = new JdbcTemplate(primaryDataSource);
+        this.replica = new JdbcTemplate(replicaDataSource);
+        this.maxLagMillis = maxLag.toMillis();
+        Gauge.builder("jpashop.replica.lag", this, m -> m.lagMillis == Long.MAX_VALUE ? Double.NaN : m.lagMillis)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${jpashop.replica.heartbeat-interval:500ms}")
+    public void check() {
+        try {
+            long now = System.currentTimeMillis();
+            primary.update("update replica_heartbeat set beat_millis = ? where id = 1", now);
+            Long replicated = replica.queryForObject("select beat_millis from replica_heartbeat where id = 1", Long.class);
+            lagMillis = replicated == null ? Long.MAX_VALUE : Math.max(0, now - replicated);
+        } catch (DataAccessException e) {
+            log.warn("replica heartbeat 확인 실패 ⇒ primary 에서 조회 : {}", e.getMessage());
+            lagMillis = Long.MAX_VALUE;
+        }
+    }
+
+    public boolean isReplicaUsable() {
+        return lagMillis <= maxLagMillis;
+    }
+
+    public long getLagMillis() {
+        return lagMillis;
+    }
+}
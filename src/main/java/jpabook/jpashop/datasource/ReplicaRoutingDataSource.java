@@ -0,0 +1,41 @@
+package jpabook.jpashop.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * readOnly 트랜잭션 ⇒ replica, 나머지 ⇒ primary
+ * 아래 경우에는 readOnly 라도 primary 로 보낸다.
+ * - replica 가 max-lag 보다 뒤처졌거나 heartbeat 를 읽을 수 없을 때 (ReplicaLagMonitor)
+ * - 방금 주문/회원가입을 한 사용자 (read-your-writes 기간, ReadYourWrites)
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+    public static final String REPLICA = "replica";
+
+    private final ReplicaLagMonitor replicaLagMonitor;
+    private final ReadYourWrites readYourWrites;
+
+    public ReplicaRoutingDataSource(ReplicaLagMonitor replicaLagMonitor, ReadYourWrites readYourWrites) {
+        this.replicaLagMonitor = replicaLagMonitor;
+        this.readYourWrites = readYourWrites;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        if (readYourWrites.isPinned()) {
+            return PRIMARY;
+        }
+        if (!replicaLagMonitor.isReplicaUsable()) {
+            log.debug("replica 지연 {}ms ⇒ primary 에서 조회", replicaLagMonitor.getLagMillis());
+            return PRIMARY;
+        }
+        return REPLICA;
+    }
+}
@@ -1,9 +1,10 @@
 package jpabook.jpashop.domain;
 
 import jakarta.persistence.*;
-import jpabook.jpashop.domain.item.Item;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -11,6 +12,8 @@ import java.util.List;
 import static jakarta.persistence.FetchType.*;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "category")
 @Getter @Setter
 public class Category {
 
@@ -20,18 +23,14 @@ public class Category {
 
     private String name;
 
-    // 실무에서는 ManyToMany 사용 xxx
-    @ManyToMany
-    @JoinTable(name = "category_item",
-            joinColumns = @JoinColumn(name = "category_id"),
-            inverseJoinColumns = @JoinColumn(name = "item_id"))
-    private List<Item> items = new ArrayList<>();
+    // 실무에서는 ManyToMany 사용 xxx ⇒ CategoryItem 연결 엔티티로 변경 (카테고리의 상품은 CategoryItemRepository 로 조회/변경한다.)
 
     @ManyToOne(fetch = LAZY)
     @JoinColumn(name = "parent_id")
     private Category parent;
 
     @OneToMany(mappedBy = "parent")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "category.child")
     private List<Category> child = new ArrayList<>();
 
     // 연관관계 편의 메서드 ⇒ 양방향 관계일 때 양쪽 세팅을 한 코드로 해결하는 것.
@@ -0,0 +1,45 @@
+package jpabook.jpashop.domain;
+
+import jakarta.persistence.*;
+import jpabook.jpashop.domain.item.Item;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import static jakarta.persistence.FetchType.*;
+
+/**
+ * 카테고리 - 상품 연결 엔티티 (@ManyToMany 대신)
+ * @ManyToMany 는 컬렉션(bag)이 바뀌면 category_item 을 통째로 지우고 다시 넣고, 페이징이나 IN 조회도 어렵다.
+ * 연결 테이블을 엔티티로 승격하면 row 단위로 추가/삭제하고 bulk 쿼리로 한 번에 처리할 수 있다. ⇒ repository > CategoryItemRepository.java 참고
+ */
+@Entity
+@Table(name = "category_item", indexes = {
+        @Index(name = "idx_category_item_item_category", columnList = "item_id, category_id")    // "상품 → 카테고리" 방향
+})
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class CategoryItem {
+
+    @EmbeddedId
+    private CategoryItemId id;
+
+    @MapsId("categoryId")
+    @ManyToOne(fetch = LAZY)
+    @JoinColumn(name = "category_id")
+    private Category category;
+
+    @MapsId("itemId")
+    @ManyToOne(fetch = LAZY)
+    @JoinColumn(name = "item_id")
+    private Item item;
+
+    //==생성 메서드==//
+    public static CategoryItem createCategoryItem(Category category, Item item) {
+        CategoryItem categoryItem = new CategoryItem();
+        categoryItem.id = new CategoryItemId(category.getId(), item.getId());
+        categoryItem.category = category;
+        categoryItem.item = item;
+        return categoryItem;
+    }
+}
@@ -0,0 +1,26 @@
+package jpabook.jpashop.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+// category_item 복합키 (category_id, item_id) ⇒ PK 인덱스가 "카테고리 → 상품" 방향 조회를 담당한다.
+@Embeddable
+@Getter
+@EqualsAndHashCode
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+public class CategoryItemId implements Serializable {
+
+    @Column(name = "category_id")
+    private Long categoryId;
+
+    @Column(name = "item_id")
+    private Long itemId;
+}
@@ -3,11 +3,16 @@ package jpabook.jpashop.domain;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Table(indexes = @Index(name = "idx_member_name", columnList = "name"))        // findByName (이름 완전 일치)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "member")
 @Getter @Setter     // 실무에서는 Getter 의 경우 열어두는 게 편하지만, Setter 를 막 열어두면 엔티티가 왜 변경되는지 추적하기 점점 힘들어지기 때문에 엔티티를 변경할 때는 Setter 대신에 변경 지점이 명확하도록 변경을 위한 비즈니스 메서드를 별도로 제공해야 한다. (원래 실무에서는 Setter 는 다 닫고 함)
 public class Member {
 
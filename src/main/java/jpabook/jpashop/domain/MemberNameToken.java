@@ -0,0 +1,47 @@
+package jpabook.jpashop.domain;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import static jakarta.persistence.FetchType.*;
+
+/**
+ * 회원 이름 검색용 토큰 (1~3글자 n-gram)
+ * like '%이름%' 는 B-tree 인덱스를 탈 수 없어서 member 테이블 전체를 읽는다.
+ * 이름을 잘라서 저장해두면 "이 토큰들을 모두 가진 회원" 을 (token) 인덱스로 찾을 수 있다. ⇒ repository > MemberNameTokenRepository.java 참고
+ */
+@Entity
+@Table(name = "member_name_token", indexes = {
+        @Index(name = "idx_member_name_token_token", columnList = "token, prefix, member_id"),
+        @Index(name = "idx_member_name_token_member", columnList = "member_id")
+})
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class MemberNameToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_name_token_seq_generator")
+    @SequenceGenerator(name = "member_name_token_seq_generator", sequenceName = "member_name_token_seq", allocationSize = 50)
+    @Column(name = "member_name_token_id")
+    private Long id;
+
+    @ManyToOne(fetch = LAZY)
+    @JoinColumn(name = "member_id")
+    private Member member;
+
+    @Column(length = 12)
+    private String token;
+
+    private boolean prefix;     // 이름의 맨 앞에서 나온 토큰인지 (앞글자 검색용)
+
+    //==생성 메서드==//
+    public static MemberNameToken createToken(Member member, String token, boolean prefix) {
+        MemberNameToken memberNameToken = new MemberNameToken();
+        memberNameToken.member = member;
+        memberNameToken.token = token;
+        memberNameToken.prefix = prefix;
+        return memberNameToken;
+    }
+}
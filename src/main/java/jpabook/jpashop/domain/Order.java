@@ -13,12 +13,39 @@ import java.util.List;
 import static jakarta.persistence.FetchType.*;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_member", columnList = "member_id"),           // 회원 이름 검색 ⇒ member_id in (...)
+        @Index(name = "idx_orders_status", columnList = "status, order_id"),   // 상태 검색, 대량 취소 (status = 'ORDER')
+        @Index(name = "idx_orders_status_date", columnList = "status, order_date, order_id"),  // 상태 + 기간 검색, 주문일 정렬
+        @Index(name = "idx_orders_date", columnList = "order_date, order_id"),                 // 기간 검색, 주문일 정렬 키셋 페이징
+        @Index(name = "idx_orders_total", columnList = "total_price, order_id"),               // 주문 금액 범위 검색, 금액 정렬 키셋 페이징
+        @Index(name = "idx_orders_id_desc", columnList = "order_id desc"),                      // 최근 주문 순 (H2 는 인덱스를 거꾸로 읽지 못한다.)
+        @Index(name = "idx_orders_date_desc", columnList = "order_date desc, order_id desc"),  // 주문일 최신 순
+        @Index(name = "idx_orders_total_desc", columnList = "total_price desc, order_id desc") // 금액 높은 순
+})
+// 주문 검색 (OrderRepository.findAllByString) ⇒ 조건 조합(상태 유무 × 회원 유무)마다 하나씩, 애플리케이션 로딩 시점에 파싱/검증된다.
+// 회원 이름 조건은 이름 토큰 서브쿼리 (토큰을 모두 가진 회원 중 정규화한 이름에 검색어가 들어있는 회원) ⇒ 회원 id 목록을 바인딩하지 않는다.
+@NamedQueries({
+        @NamedQuery(name = "Order.search",
+                query = "select o from Order o join o.member m"),
+        @NamedQuery(name = "Order.searchByStatus",
+                query = "select o from Order o join o.member m where o.status = :status"),
+        @NamedQuery(name = "Order.searchByMembers",
+                query = "select o from Order o join o.member m where m.id in (" + Order.MEMBER_IDS_BY_NAME + ")"),
+        @NamedQuery(name = "Order.searchByStatusAndMembers",
+                query = "select o from Order o join o.member m where o.status = :status and m.id in (" + Order.MEMBER_IDS_BY_NAME + ")")
+})
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)      // OrderItem.java 파일 주석 설명 참고
 public class Order {
 
-    @Id @GeneratedValue
+    static final String MEMBER_IDS_BY_NAME = "select t.member.id from MemberNameToken t join t.member tm" +
+            " where t.token in :nameTokens and replace(lower(tm.name), ' ', '') like :namePattern escape '!'" +
+            " group by t.member.id having count(t) = :nameTokenCount";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_seq_generator")
+    @SequenceGenerator(name = "order_seq_generator", sequenceName = "orders_seq", allocationSize = 50)     // pooled ⇒ 50개 id 를 미리 받아두고 insert 를 JDBC batch 로 묶을 수 있다.
     @Column(name = "order_id")
     private Long id;
 
@@ -33,11 +60,17 @@ public class Order {
     @JoinColumn(name = "delivery_id")
     private Delivery delivery;
 
-    private LocalDateTime orderDate;        // 주문 시간
+    @Column(nullable = false)
+    private LocalDateTime orderDate;        // 주문 시간 (주문일 정렬 키셋 커서의 키 ⇒ not null)
 
     @Enumerated(EnumType.STRING)
     private OrderStatus status;     // 주문 상태 [ORDER, CANCEL]
 
+    /* 주문 전체 가격 (주문상품 orderPrice * count 합계)
+    * 주문상품은 주문 후에 바뀌지 않으므로 주문을 만들 때 계산해서 저장해 둔다. ⇒ 금액 범위 검색/정렬을 order_item 조인 없이 인덱스로 처리한다. */
+    @Column(name = "total_price", nullable = false)
+    private int totalPrice;
+
     // 연관관계 편의 메서드 ⇒ 양방향 관계일 때 양쪽 세팅을 한 코드로 해결하는 것.
     public void setMember(Member member) {
         this.member = member;
@@ -47,6 +80,7 @@ public class Order {
     public void addOrderItem(OrderItem orderItem) {
         orderItems.add(orderItem);
         orderItem.setOrder(this);
+        totalPrice += orderItem.getTotalPrice();
     }
 
     public void setDelivery(Delivery delivery) {
@@ -72,27 +106,35 @@ public class Order {
      * 주문 취소
      */
     public void cancel() {
+        markCanceled();
+        for (OrderItem orderItem : orderItems) {
+            orderItem.cancel();
+        }
+    }
+
+    /**
+     * 주문 상태만 취소로 변경
+     * (재고 원복은 호출하는 쪽에서 ItemRepository.addStock 으로 원자적으로 처리한다. ⇒ OrderService.cancelOrder 참고)
+     */
+    public void markCanceled() {
+        if (status == OrderStatus.CANCEL) {
+            throw new IllegalStateException("이미 취소된 주문입니다.");
+        }
         if (delivery.getStatus() == DeliveryStatus.COMP) {
             throw new IllegalStateException("이미 배송 완료된 상품은 취소가 불가능합니다.");
         }
 
         this.setStatus(OrderStatus.CANCEL);
-        for (OrderItem orderItem : orderItems) {
-            orderItem.cancel();
-        }
     }
 
     // 조회 로직
     /**
      * 전체 주문 가격 조회
+     * 주문상품을 추가할 때(addOrderItem) 더해 둔 total_price 컬럼 값이다. ⇒ orderItems 를 지연 로딩하지 않는다.
      */
     public int getTotalPrice() {
-        int totalPrice = 0;
-        for (OrderItem orderItem : orderItems) {
-            totalPrice += orderItem.getTotalPrice();
-        }
         return totalPrice;
-        /* IntelliJ 가 위 코드를 아래처럼 간략하게 바꿔줌. Alt + Enter > 어쩌고저쩌고 sum()
+        /* 예전에는 조회할 때마다 주문상품을 돌면서 계산했다.
         return orderItems.stream().mapToInt(OrderItem::getTotalPrice).sum(); */
     }
 }
@@ -11,11 +11,18 @@ import org.aspectj.weaver.ast.Or;
 import static jakarta.persistence.FetchType.*;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_order_item_order", columnList = "order_id"),                        // 주문 → 주문상품 (컬렉션 IN 조회, batch fetch)
+        @Index(name = "idx_order_item_item_reconciled", columnList = "item_id, stock_reconciled"), // 핫 상품 원장 (아직 반영 안 된 주문상품)
+        @Index(name = "idx_order_item_item_order", columnList = "item_id, order_id")               // 상품으로 주문 검색 (exists)
+})
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class OrderItem {
 
-    @Id @GeneratedValue
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_item_seq_generator")
+    @SequenceGenerator(name = "order_item_seq_generator", sequenceName = "order_item_seq", allocationSize = 50)
     @Column(name = "order_item_id")
     private Long id;
 
@@ -30,6 +37,9 @@ public class OrderItem {
     private int orderPrice;     // 주문 가격
     private int count;          // 주문 수량
 
+    // 재고가 item 테이블에 반영됐는지 여부 (핫 상품 원장으로 예약한 주문상품만 false 로 저장되고, HotItemStockReconciler 가 반영 후 true 로 바꾼다.)
+    private boolean stockReconciled = true;
+
     /* new OrderItem() 으로 생성하지 못하도록 막는 것. createOrderItem 으로만 생성할 수 있어야 한다.
     @NoArgsConstructor(access = AccessLevel.PROTECTED) 가 대신해준다.
     protected OrderItem() {
@@ -37,12 +47,21 @@ public class OrderItem {
 
     // 생성 메서드
     public static OrderItem createOrderItem(Item item, int orderPrice, int count) {
+        OrderItem orderItem = createReservedOrderItem(item, orderPrice, count);
+
+        item.removeStock(count);
+        return orderItem;
+    }
+
+    /**
+     * 재고가 이미 차감된 상품으로 주문상품 생성
+     * (OrderService 는 ItemRepository.removeStock 으로 DB 에서 원자적으로 재고를 차감한 뒤 이 메서드를 사용한다.)
+     */
+    public static OrderItem createReservedOrderItem(Item item, int orderPrice, int count) {
         OrderItem orderItem = new OrderItem();
         orderItem.setItem(item);
         orderItem.setOrderPrice(orderPrice);
         orderItem.setCount(count);
-
-        item.removeStock(count);
         return orderItem;
     }
 
@@ -4,12 +4,16 @@ import jakarta.persistence.DiscriminatorValue;
 import jakarta.persistence.Entity;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.FullTextField;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.KeywordField;
 
 @Entity
 @DiscriminatorValue("B")
 @Getter @Setter
 public class Book extends Item {
 
+    @FullTextField(analyzer = "name")
     private String author;
+    @KeywordField
     private String isbn;
 }
@@ -1,17 +1,24 @@
 package jpabook.jpashop.domain.item;
 
 import jakarta.persistence.*;
-import jpabook.jpashop.domain.Category;
 import jpabook.jpashop.exception.NotEnoughStockException;
 import lombok.Getter;
 import lombok.Setter;
-
-import java.util.ArrayList;
-import java.util.List;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.search.engine.backend.types.Projectable;
+import org.hibernate.search.engine.backend.types.Sortable;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.FullTextField;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.GenericField;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.Indexed;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "item")      // 2차 캐시 (Book, Album, Movie 도 같은 region 을 사용한다.)
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE)
 @DiscriminatorColumn(name = "dtype")
+@Table(indexes = @Index(name = "idx_item_dtype", columnList = "dtype"))       // 하위 타입 조회 (select b from Book b ⇒ where dtype = 'B')
+@Indexed        // 상품 검색 인덱스 (Book, Album, Movie 각각 인덱스가 만들어진다. ⇒ service > ItemSearchService.java 참고)
 @Getter @Setter
 public abstract class Item {
 
@@ -19,12 +26,14 @@ public abstract class Item {
     @Column(name = "item_id")
     private Long id;
 
+    @FullTextField(analyzer = "name", projectable = Projectable.YES)
+    @FullTextField(name = "name_prefix", analyzer = "name_prefix", searchAnalyzer = "name")     // 앞글자 검색용 (edge n-gram)
     private String name;
+
+    @GenericField(projectable = Projectable.YES, sortable = Sortable.YES)
     private int price;
-    private int stockQuantity;
 
-    @ManyToMany(mappedBy = "items")
-    private List<Category> categories = new ArrayList<>();
+    private int stockQuantity;
 
     // 비즈니스 로직 (도메인 모델 패턴)
     // data(stockQuantity(재고 수량))를 가지고 있는 곳에서 비즈니스 로직이 나가는게 응집력이 좋다.
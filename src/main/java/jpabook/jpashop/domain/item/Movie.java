@@ -4,12 +4,15 @@ import jakarta.persistence.DiscriminatorValue;
 import jakarta.persistence.Entity;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.FullTextField;
 
 @Entity
 @DiscriminatorValue("M")
 @Getter @Setter
 public class Movie extends Item {
 
+    @FullTextField(analyzer = "name")
     private String director;
+    @FullTextField(analyzer = "name")
     private String actor;
 }
@@ -0,0 +1,16 @@
+package jpabook.jpashop.exception;
+
+/**
+ * 클라이언트가 잘못 보낸 요청 값 (검색 조건 없음, 잘못된 커서 등) ⇒ API 에서 400 으로 응답한다. (api.ApiExceptionHandler)
+ * 메시지가 그대로 응답에 나가므로 사용자에게 보여줄 수 있는 내용만 넣는다.
+ */
+public class InvalidRequestException extends RuntimeException {
+
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+
+    public InvalidRequestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
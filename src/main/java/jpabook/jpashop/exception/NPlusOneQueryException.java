@@ -0,0 +1,20 @@
+package jpabook.jpashop.exception;
+
+public class NPlusOneQueryException extends RuntimeException {
+
+    public NPlusOneQueryException() {
+        super();
+    }
+
+    public NPlusOneQueryException(String message) {
+        super(message);
+    }
+
+    public NPlusOneQueryException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public NPlusOneQueryException(Throwable cause) {
+        super(cause);
+    }
+}
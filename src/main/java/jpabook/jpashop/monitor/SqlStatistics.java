@@ -0,0 +1,71 @@
+package jpabook.jpashop.monitor;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * HTTP 요청 하나 동안 실행된 SQL 통계 (SqlStatisticsFilter 가 요청마다 만들고, SqlStatisticsListener 가 채운다.)
+ * 요청 스레드에서만 접근하므로 동기화하지 않는다.
+ */
+public class SqlStatistics {
+
+    private static final ThreadLocal<SqlStatistics> CURRENT = new ThreadLocal<>();
+
+    private int statementCount;
+    private long elapsedNanos;
+    private long rowCount;
+    private final Map<String, Integer> shapeCounts = new HashMap<>();      // 같은 모양(파라미터는 ?)의 SQL 실행 횟수
+
+    public static SqlStatistics start() {
+        SqlStatistics statistics = new SqlStatistics();
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    public static SqlStatistics current() {
+        return CURRENT.get();
+    }
+
+    public static void stop() {
+        CURRENT.remove();
+    }
+
+    void recordStatement(String sql, long nanos) {
+        statementCount++;
+        elapsedNanos += nanos;
+        if (sql != null) {
+            shapeCounts.merge(normalize(sql), 1, Integer::sum);
+        }
+    }
+
+    void recordRow() {
+        rowCount++;
+    }
+
+    public int getStatementCount() {
+        return statementCount;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public Map<String, Integer> getShapeCounts() {
+        return shapeCounts;
+    }
+
+    // 가장 많이 반복된 SQL 모양 (없으면 null)
+    public Map.Entry<String, Integer> mostRepeatedShape() {
+        return shapeCounts.entrySet().stream()
+                .max(Map.Entry.comparingByValue())
+                .orElse(null);
+    }
+
+    private static String normalize(String sql) {
+        return sql.replaceAll("\\s+", " ").trim();
+    }
+}
@@ -0,0 +1,153 @@
+package jpabook.jpashop.monitor;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import jpabook.jpashop.exception.NPlusOneQueryException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 요청 1번당 SQL 실행 수 / DB 시간 / 조회 row 수를 집계한다.
+ * - 응답 헤더 : X-SQL-Count, X-SQL-Time-Ms, X-SQL-Rows (응답 바디를 쓰기 시작하는 시점까지의 값. 직렬화 중 지연 로딩은 메트릭/로그에만 반영된다.)
+ * - Micrometer : jpashop.sql.statements, jpashop.sql.time, jpashop.sql.rows (uri 태그), jpashop.sql.n_plus_one
+ * - 같은 모양의 SQL 이 n-plus-one-threshold 번보다 많이 실행되면 1+N 으로 보고 경고 로그를 남긴다.
+ * - fail-on-n-plus-one-in-tests=true 면 로그 후 예외를 던진다. ⇒ 테스트(MockMvc) 전용
+ *   검사는 요청 처리가 끝난 뒤라 실제 서버에서는 응답 바디가 이미 클라이언트로 나갔다. (예외를 던져도 200 응답이 그대로 간다.) ⇒ 운영에서는 켜지 않는다.
+ */
+@Slf4j
+@Component
+public class SqlStatisticsFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+    private final int nPlusOneThreshold;
+    private final boolean failOnNPlusOneInTests;
+
+    public SqlStatisticsFilter(MeterRegistry meterRegistry,
+                               @Value("${jpashop.sql-monitor.n-plus-one-threshold:10}") int nPlusOneThreshold,
+                               @Value("${jpashop.sql-monitor.fail-on-n-plus-one-in-tests:false}") boolean failOnNPlusOneInTests) {
+        this.meterRegistry = meterRegistry;
+        this.nPlusOneThreshold = nPlusOneThreshold;
+        this.failOnNPlusOneInTests = failOnNPlusOneInTests;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        SqlStatistics statistics = SqlStatistics.start();
+        SqlHeaderResponseWrapper wrapper = new SqlHeaderResponseWrapper(response, statistics);
+        try {
+            filterChain.doFilter(request, wrapper);
+            wrapper.writeHeaders();
+        } finally {
+            SqlStatistics.stop();
+            record(request, statistics);
+        }
+        checkNPlusOne(request, statistics);
+    }
+
+    private void record(HttpServletRequest request, SqlStatistics statistics) {
+        String uri = uriTag(request);
+
+        DistributionSummary.builder("jpashop.sql.statements").tag("uri", uri)
+                .register(meterRegistry).record(statistics.getStatementCount());
+        Timer.builder("jpashop.sql.time").tag("uri", uri)
+                .register(meterRegistry).record(statistics.getElapsedNanos(), TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("jpashop.sql.rows").tag("uri", uri)
+                .register(meterRegistry).record(statistics.getRowCount());
+    }
+
+    private void checkNPlusOne(HttpServletRequest request, SqlStatistics statistics) {
+        Map.Entry<String, Integer> repeated = statistics.mostRepeatedShape();
+        if (repeated == null || repeated.getValue() <= nPlusOneThreshold) {
+            return;
+        }
+
+        meterRegistry.counter("jpashop.sql.n_plus_one", "uri", uriTag(request)).increment();
+        String message = "1+N 의심 : " + request.getMethod() + " " + request.getRequestURI()
+                + " 에서 같은 SQL 이 " + repeated.getValue() + "번 실행됐습니다. ⇒ " + repeated.getKey();
+        log.warn(message);
+        if (failOnNPlusOneInTests) {
+            throw new NPlusOneQueryException(message);
+        }
+    }
+
+    // 실제 URI(/api/orders/1, /api/orders/2 ...)를 태그로 쓰면 요청마다 새 시계열이 생긴다. ⇒ 매핑된 패턴(/api/orders/{id})
+    private static String uriTag(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+
+    /**
+     * 헤더는 응답이 커밋되기 전에만 쓸 수 있으므로 바디를 쓰기 직전에 SQL 통계를 헤더로 넣는다.
+     */
+    static class SqlHeaderResponseWrapper extends HttpServletResponseWrapper {
+
+        private final SqlStatistics statistics;
+        private boolean headersWritten;
+
+        SqlHeaderResponseWrapper(HttpServletResponse response, SqlStatistics statistics) {
+            super(response);
+            this.statistics = statistics;
+        }
+
+        void writeHeaders() {
+            if (headersWritten || isCommitted()) {
+                return;
+            }
+            headersWritten = true;
+            setHeader("X-SQL-Count", String.valueOf(statistics.getStatementCount()));
+            setHeader("X-SQL-Time-Ms", String.valueOf(TimeUnit.NANOSECONDS.toMillis(statistics.getElapsedNanos())));
+            setHeader("X-SQL-Rows", String.valueOf(statistics.getRowCount()));
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeaders();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeHeaders();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeHeaders();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            writeHeaders();
+            super.sendRedirect(location);
+        }
+    }
+}
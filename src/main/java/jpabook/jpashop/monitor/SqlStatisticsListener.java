@@ -0,0 +1,32 @@
+package jpabook.jpashop.monitor;
+
+import com.p6spy.engine.common.ResultSetInformation;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+
+/**
+ * p6spy 이벤트 리스너 ⇒ 빈으로 등록하면 p6spy-spring-boot-starter 가 데이터소스에 자동으로 붙여준다.
+ * 요청 범위(SqlStatistics.current()) 가 없으면(애플리케이션 시작, 스케줄러 등) 아무것도 하지 않는다.
+ */
+@Component
+public class SqlStatisticsListener extends SimpleJdbcEventListener {
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        SqlStatistics statistics = SqlStatistics.current();
+        if (statistics != null) {
+            statistics.recordStatement(statementInformation.getSql(), timeElapsedNanos);
+        }
+    }
+
+    @Override
+    public void onAfterResultSetNext(ResultSetInformation resultSetInformation, long timeElapsedNanos, boolean hasNext, SQLException e) {
+        SqlStatistics statistics = SqlStatistics.current();
+        if (statistics != null && hasNext) {
+            statistics.recordRow();
+        }
+    }
+}
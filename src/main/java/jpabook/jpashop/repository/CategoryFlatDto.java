@@ -0,0 +1,17 @@
+package jpabook.jpashop.repository;
+
+import lombok.Data;
+
+// 카테고리 트리를 한 번에 조회하기 위한 평평한(flat) row (parent 는 id 만)
+@Data
+public class CategoryFlatDto {
+    private Long id;
+    private String name;
+    private Long parentId;
+
+    public CategoryFlatDto(Long id, String name, Long parentId) {
+        this.id = id;
+        this.name = name;
+        this.parentId = parentId;
+    }
+}
@@ -0,0 +1,86 @@
+package jpabook.jpashop.repository;
+
+import jakarta.persistence.EntityManager;
+import jpabook.jpashop.domain.CategoryItem;
+import jpabook.jpashop.domain.item.Item;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.query.NativeQuery;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 카테고리 - 상품 연결 (category_item)
+ * 상품 수천 개의 카테고리를 바꿀 때 엔티티를 하나씩 persist/remove 하지 않고, 카테고리당 insert 1번 / delete 1번으로 처리한다.
+ * bulk 쿼리는 영속성 컨텍스트를 거치지 않으므로, 같은 트랜잭션에서 이미 조회한 CategoryItem 엔티티와는 다를 수 있다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CategoryItemRepository {
+
+    private final EntityManager em;
+
+    public void save(CategoryItem categoryItem) {
+        em.persist(categoryItem);
+    }
+
+    /**
+     * 상품들을 카테고리에 연결 (이미 연결된 상품, 존재하지 않는 상품은 건너뛴다.)
+     * insert ... select 한 번이라 상품 수와 상관없이 쿼리 1번.
+     *
+     * @return 새로 연결된 상품 수
+     */
+    public int assignAll(Long categoryId, Collection<Long> itemIds) {
+        em.flush();     // 영속성 컨텍스트에 쌓인 insert 를 먼저 반영해야 중복 검사가 정확하다.
+        return em.createNativeQuery(
+                        "insert into category_item (category_id, item_id)" +
+                                " select :categoryId, i.item_id from item i" +
+                                " where i.item_id in :itemIds" +
+                                " and not exists (select 1 from category_item ci" +
+                                " where ci.category_id = :categoryId and ci.item_id = i.item_id)")
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(CategoryItem.class)     // 지정하지 않으면 2차 캐시 region 전체가 비워진다.
+                .setParameter("categoryId", categoryId)
+                .setParameter("itemIds", itemIds)
+                .executeUpdate();
+    }
+
+    /**
+     * 상품들을 카테고리에서 제거
+     *
+     * @return 제거된 연결 수
+     */
+    public int unassignAll(Long categoryId, Collection<Long> itemIds) {
+        return em.createQuery(
+                        "delete from CategoryItem ci" +
+                                " where ci.id.categoryId = :categoryId" +
+                                " and ci.id.itemId in :itemIds")
+                .setParameter("categoryId", categoryId)
+                .setParameter("itemIds", itemIds)
+                .executeUpdate();
+    }
+
+    // 카테고리에 직접 연결된 상품 (페이징, PK(category_id, item_id) 인덱스 범위 조회)
+    public List<Item> findItems(Long categoryId, int offset, int limit) {
+        return em.createQuery(
+                        "select i from CategoryItem ci" +
+                                " join ci.item i" +
+                                " where ci.id.categoryId = :categoryId" +
+                                " order by ci.id.itemId", Item.class)
+                .setParameter("categoryId", categoryId)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    // 상품이 속한 카테고리 id (idx_category_item_item_category 인덱스만으로 조회)
+    public List<Long> findCategoryIds(Long itemId) {
+        return em.createQuery(
+                        "select ci.id.categoryId from CategoryItem ci" +
+                                " where ci.id.itemId = :itemId" +
+                                " order by ci.id.categoryId", Long.class)
+                .setParameter("itemId", itemId)
+                .getResultList();
+    }
+}
@@ -0,0 +1,50 @@
+package jpabook.jpashop.repository;
+
+import jakarta.persistence.EntityManager;
+import jpabook.jpashop.domain.Category;
+import jpabook.jpashop.domain.item.Item;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class CategoryRepository {
+
+    private final EntityManager em;
+
+    public void save(Category category) {
+        em.persist(category);
+    }
+
+    public Category findOne(Long id) {
+        return em.find(Category.class, id);
+    }
+
+    /**
+     * 카테고리 전체를 쿼리 한 번으로 조회
+     * parent / child 를 지연 로딩으로 따라가면 트리 깊이(또는 노드 수)만큼 쿼리가 나간다.
+     * (id, name, parent_id) 만 평평하게 가져와서 트리는 메모리에서 만든다. ⇒ service > CategoryHierarchyService.java 참고
+     * left join 이 아니라 c.parent.id 를 바로 쓰면 parent 테이블 조인 없이 FK 컬럼만 읽는다.
+     */
+    public List<CategoryFlatDto> findAllFlat() {
+        return em.createQuery(
+                "select new jpabook.jpashop.repository.CategoryFlatDto(c.id, c.name, c.parent.id)" +
+                        " from Category c" +
+                        " order by c.id", CategoryFlatDto.class)
+                .getResultList();
+    }
+
+    // 여러 카테고리에 속한 상품을 한 번에 조회 (category_item 을 category_id IN 으로 조회)
+    public List<Item> findItemsInCategories(Collection<Long> categoryIds) {
+        return em.createQuery(
+                "select distinct i from CategoryItem ci" +
+                        " join ci.item i" +
+                        " where ci.category.id in :categoryIds" +
+                        " order by i.id", Item.class)
+                .setParameter("categoryIds", categoryIds)
+                .getResultList();
+    }
+}
@@ -1,10 +1,17 @@
 package jpabook.jpashop.repository;
 
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
 import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.exception.NotEnoughStockException;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.NativeQuery;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -28,7 +35,130 @@ public class ItemRepository {
         return em.find(Item.class, id);
     }
 
+    // 핫 상품 재고 수정 (select ... for update) ⇒ 2차 캐시가 아니라 DB 의 현재 값을 읽는다.
+    public Item findOneForUpdate(Long id) {
+        return em.find(Item.class, id, LockModeType.PESSIMISTIC_WRITE);
+    }
+
     public List<Item> findAll() {
-        return em.createQuery("select i from Item i", Item.class).getResultList();
+        return em.createQuery("select i from Item i", Item.class)
+                .setHint(HibernateHints.HINT_CACHEABLE, true)      // 쿼리 캐시 (item 테이블이 바뀌면 자동으로 무효화된다.)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)      // 목록 화면용 ⇒ 변경 감지 스냅샷 없이 로딩 (수정은 findOne 으로 다시 읽어서 한다.)
+                .getResultList();
+    }
+
+    public List<Item> findAll(Collection<Long> ids) {
+        return em.createQuery("select i from Item i where i.id in :ids", Item.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
+    /**
+     * 재고 수량 감소 (원자적)
+     * 엔티티의 removeStock 은 "읽고 → 계산하고 → 쓰는" 방식이라 동시에 주문이 들어오면 둘 다 재고 검사를 통과해서 초과 판매가 생길 수 있다.
+     * 조건부 update 한 번으로 재고 검사와 차감을 같이 하기 때문에 DB 가 row 단위로 직렬화해준다. (0건 수정 ⇒ 재고 부족)
+     */
+    public Item removeStock(Long itemId, int quantity) {
+        decreaseStock(itemId, quantity);
+        return refresh(itemId);
+    }
+
+    /**
+     * 재고 수량 감소 (원자적, 엔티티 refresh 없음)
+     * 이미 조회된 엔티티의 stockQuantity 는 차감 전 값으로 남는다. (변경된 게 아니라서 flush 때 덮어쓰지는 않는다.) ⇒ 대량 주문처럼 재고 값을 다시 볼 일이 없을 때 사용
+     */
+    public void decreaseStock(Long itemId, int quantity) {
+        int updated = updateStock(itemId, quantity,
+                "update item set stock_quantity = stock_quantity - :quantity" +
+                        " where item_id = :id and stock_quantity >= :quantity");
+        if (updated == 0) {
+            throw new NotEnoughStockException("need more stock");
+        }
+    }
+
+    /**
+     * 재고 수량 증가 (원자적)
+     */
+    public Item addStock(Long itemId, int quantity) {
+        increaseStock(itemId, quantity);
+        return refresh(itemId);
+    }
+
+    // 재고 수량 증가 (원자적, 엔티티 refresh 없음)
+    public void increaseStock(Long itemId, int quantity) {
+        updateStock(itemId, quantity,
+                "update item set stock_quantity = stock_quantity + :quantity where item_id = :id");
+    }
+
+    /**
+     * 재고 update 공통
+     * JPQL 벌크 update 는 Hibernate 가 item 2차 캐시 region 전체를 비워버린다. (주문 한 번에 상품 캐시 전체가 날아간다.)
+     * ⇒ native 쿼리에 빈 query space 를 지정해서 자동 무효화를 막고, 바뀐 상품 하나만 직접 evict 한다.
+     * native 쿼리는 자동 flush 대상이 아니므로 먼저 flush 한다.
+     */
+    private int updateStock(Long itemId, int quantity, String sql) {
+        em.flush();
+        NativeQuery<?> query = em.createNativeQuery(sql).unwrap(NativeQuery.class);
+        int updated = query
+                .addSynchronizedQuerySpace("")
+                .setParameter("quantity", quantity)
+                .setParameter("id", itemId)
+                .executeUpdate();
+        evictFromCache(itemId);
+        return updated;
+    }
+
+    // 지금 한 번, 커밋 후에 한 번 더 evict ⇒ 커밋 전에 다른 트랜잭션이 이전 값을 다시 캐시에 올려도 커밋 후에는 지워진다.
+    private void evictFromCache(Long itemId) {
+        em.getEntityManagerFactory().getCache().evict(Item.class, itemId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    em.getEntityManagerFactory().getCache().evict(Item.class, itemId);
+                }
+            });
+        }
+    }
+
+    // 벌크 update 는 영속성 컨텍스트를 거치지 않으므로 이미 조회된 엔티티가 있으면 DB 값으로 다시 맞춰준다.
+    private Item refresh(Long itemId) {
+        Item item = em.getReference(Item.class, itemId);
+        em.refresh(item);
+        return item;
+    }
+
+    // ===== 핫 상품 재고 원장 (service > HotItemStockLedger) =====
+
+    /**
+     * 원장 재고 = item 재고 - 아직 item 에 반영되지 않은 주문상품 수량
+     */
+    public long findLedgerStock(Long itemId) {
+        return em.createQuery(
+                "select i.stockQuantity - coalesce((select sum(oi.count) from OrderItem oi" +
+                        " where oi.item.id = i.id and oi.stockReconciled = false), 0)" +
+                        " from Item i where i.id = :id", Long.class)
+                .setParameter("id", itemId)
+                .getSingleResult();
+    }
+
+    // [orderItemId, count]
+    public List<Object[]> findUnreconciledOrderItems(Long itemId, int limit) {
+        return em.createQuery(
+                "select oi.id, oi.count from OrderItem oi" +
+                        " where oi.item.id = :itemId and oi.stockReconciled = false" +
+                        " order by oi.id", Object[].class)
+                .setParameter("itemId", itemId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    // 원장에서 이미 재고 검사를 했으므로 조건 없이 차감한다.
+    public void applyReconciledStock(Long itemId, int quantity, Collection<Long> orderItemIds) {
+        updateStock(itemId, quantity,
+                "update item set stock_quantity = stock_quantity - :quantity where item_id = :id");
+        em.createQuery("update OrderItem oi set oi.stockReconciled = true where oi.id in :ids")
+                .setParameter("ids", orderItemIds)
+                .executeUpdate();
     }
 }
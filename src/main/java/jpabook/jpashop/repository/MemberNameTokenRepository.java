@@ -0,0 +1,91 @@
+package jpabook.jpashop.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.MemberNameToken;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 회원 이름 검색 (토큰 인덱스)
+ * - 검색어가 3글자 이하 : 토큰 하나를 그대로 조회 (정확)
+ * - 검색어가 4글자 이상 : trigram 을 모두 가진 회원을 후보로 찾고, 후보의 실제 이름으로 한 번 더 확인한다. (trigram 이 떨어져서 나온 경우 제외)
+ * 회원 이름을 저장/변경할 때 index(member) 를 호출해야 한다. (MemberService.join, update)
+ */
+@Repository
+@RequiredArgsConstructor
+public class MemberNameTokenRepository {
+
+    private final EntityManager em;
+
+    // 회원 이름 토큰 다시 만들기 (기존 토큰 삭제 후 저장, 토큰 insert 는 JDBC batch 로 나간다.)
+    public void index(Member member) {
+        em.createQuery("delete from MemberNameToken t where t.member.id = :memberId")
+                .setParameter("memberId", member.getId())
+                .executeUpdate();
+
+        Map<String, Boolean> tokens = MemberNameTokens.indexTokens(MemberNameTokens.normalize(member.getName()));
+        tokens.forEach((token, prefix) -> em.persist(MemberNameToken.createToken(member, token, prefix)));
+    }
+
+    // 이름에 검색어가 포함된 회원 id
+    public List<Long> findMemberIdsByNameContaining(String name) {
+        return findMemberIds(name, false);
+    }
+
+    // 이름이 검색어로 시작하는 회원 id
+    public List<Long> findMemberIdsByNamePrefix(String name) {
+        return findMemberIds(name, true);
+    }
+
+    private List<Long> findMemberIds(String name, boolean prefixOnly) {
+        String normalized = MemberNameTokens.normalize(name);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+
+        Set<String> tokens = MemberNameTokens.queryTokens(normalized);
+        String first = tokens.iterator().next();
+
+        String jpql = "select t.member.id from MemberNameToken t" +
+                " where t.token in :tokens";
+        if (prefixOnly) {
+            jpql += " and t.member.id in (select p.member.id from MemberNameToken p where p.token = :first and p.prefix = true)";
+        }
+        jpql += " group by t.member.id" +
+                " having count(t) = :tokenCount" +
+                " order by t.member.id";
+
+        TypedQuery<Long> query = em.createQuery(jpql, Long.class)
+                .setParameter("tokens", tokens)
+                .setParameter("tokenCount", (long) tokens.size());
+        if (prefixOnly) {
+            query.setParameter("first", first);
+        }
+        List<Long> candidates = query.getResultList();
+
+        if (MemberNameTokens.isExact(normalized) || candidates.isEmpty()) {
+            return candidates;
+        }
+        return verify(candidates, normalized, prefixOnly);
+    }
+
+    private List<Long> verify(List<Long> candidateIds, String normalized, boolean prefixOnly) {
+        List<Object[]> rows = em.createQuery("select m.id, m.name from Member m where m.id in :ids order by m.id", Object[].class)
+                .setParameter("ids", candidateIds)
+                .getResultList();
+        return rows.stream()
+                .filter(row -> {
+                    String memberName = MemberNameTokens.normalize((String) row[1]);
+                    return prefixOnly ? memberName.startsWith(normalized) : memberName.contains(normalized);
+                })
+                .map(row -> (Long) row[0])
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,63 @@
+package jpabook.jpashop.repository;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 회원 이름 토큰 만들기
+ * 공백 제거 + 소문자로 정규화한 뒤 1~3글자 n-gram 으로 자른다. (한글 이름은 2~3글자가 많아서 trigram 만으로는 부족하다.)
+ */
+final class MemberNameTokens {
+
+    static final int MAX_GRAM = 3;
+
+    private MemberNameTokens() {
+    }
+
+    static String normalize(String name) {
+        if (name == null) {
+            return "";
+        }
+        return name.replaceAll("\\s+", "").toLowerCase(Locale.ROOT);
+    }
+
+    // 저장할 토큰 → 이름 맨 앞에서 나왔는지
+    static Map<String, Boolean> indexTokens(String normalized) {
+        int[] codePoints = normalized.codePoints().toArray();
+        Map<String, Boolean> tokens = new LinkedHashMap<>();
+        for (int start = 0; start < codePoints.length; start++) {
+            for (int length = 1; length <= MAX_GRAM && start + length <= codePoints.length; length++) {
+                String token = new String(codePoints, start, length);
+                tokens.merge(token, start == 0, Boolean::logicalOr);
+            }
+        }
+        return tokens;
+    }
+
+    // 검색어 토큰 (3글자 이하는 검색어 자체가 토큰, 더 길면 trigram 으로 자른다.)
+    static Set<String> queryTokens(String normalized) {
+        int[] codePoints = normalized.codePoints().toArray();
+        Set<String> tokens = new LinkedHashSet<>();
+        if (codePoints.length <= MAX_GRAM) {
+            tokens.add(normalized);
+            return tokens;
+        }
+        for (int start = 0; start + MAX_GRAM <= codePoints.length; start++) {
+            tokens.add(new String(codePoints, start, MAX_GRAM));
+        }
+        return tokens;
+    }
+
+    // like '%검색어%' (정규화된 이름과 비교, 검색어의 %, _ 는 글자 그대로) ⇒ escape '!'
+    static String containsPattern(String normalized) {
+        String escaped = normalized.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+        return "%" + escaped + "%";
+    }
+
+    static boolean isExact(String normalized) {
+        return normalized.codePointCount(0, normalized.length()) <= MAX_GRAM;
+    }
+}
@@ -1,10 +1,18 @@
 package jpabook.jpashop.repository;
 
+import jakarta.persistence.QueryHint;
 import jpabook.jpashop.domain.Member;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.List;
 
 public interface MemberRepository extends JpaRepository<Member, Long> {
     List<Member> findByName(String name);
+
+    // 주문 화면에서 매번 전체 회원을 조회하므로 쿼리 캐시 사용 (member 테이블이 바뀌면 자동으로 무효화된다.)
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Member> findAll();
 }
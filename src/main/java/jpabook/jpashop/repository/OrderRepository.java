@@ -1,26 +1,44 @@
 package jpabook.jpashop.repository;
 
+import com.querydsl.core.types.OrderSpecifier;
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.jpa.JPAExpressions;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.annotation.PostConstruct;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.LockModeType;
 import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.*;
+import jpabook.jpashop.domain.DeliveryStatus;
+import jpabook.jpashop.domain.MemberNameToken;
 import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.QDelivery;
 import jpabook.jpashop.domain.QMember;
+import jpabook.jpashop.domain.QMemberNameToken;
 import jpabook.jpashop.domain.QOrder;
+import jpabook.jpashop.domain.QOrderItem;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.StringUtils;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 @Repository
 @RequiredArgsConstructor
 public class OrderRepository {
 
     private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+
+    private static final String CRITERIA_PREFIX = "Order.criteria.search";
 
     public void save(Order order) {
         em.persist(order);
@@ -30,6 +48,11 @@ public class OrderRepository {
         return em.find(Order.class, id);
     }
 
+    // 취소처럼 같은 주문을 동시에 변경하면 안 되는 곳에서 사용 (select ... for update)
+    public Order findOneForUpdate(Long id) {
+        return em.find(Order.class, id, LockModeType.PESSIMISTIC_WRITE);
+    }
+
     /*public List<Order> findAll(OrderSearch orderSearch) {
         // 동적 쿼리는 Querydsl 라이브러리 사용하는 게 가장 좋다. (JPQL 로 처리하거나, JPA Criteria 로 처리하면 오타 위험성 및 가독성 저하 문제가 상당하다. 사용 xxx)
         return em.createQuery("select o from Order o join o.member m" +
@@ -41,51 +64,46 @@ public class OrderRepository {
                 .getResultList();
     }*/
 
+    /* 문자열로 JPQL 을 이어 붙이던 동적 쿼리 ⇒ 조건 조합이 4개뿐이라 Order 엔티티의 @NamedQuery 로 미리 등록했다.
+    * 네임드 쿼리는 로딩 시점에 한 번만 파싱되므로 (문법 오류도 로딩 시점에 발견) 호출마다 JPQL 을 만들고 파싱하는 비용이 없다. */
     public List<Order> findAllByString(OrderSearch orderSearch) {
-
-        String jpql = "select o from Order o join o.member m";
-        boolean isFirstCondition = true;
-
-        //주문 상태 검색
-        if (orderSearch.getOrderStatus() != null) {
-            if (isFirstCondition) {
-                jpql += " where";
-                isFirstCondition = false;
-            } else {
-                jpql += " and";
-            }
-            jpql += " o.status = :status";
-        }
-
-        //회원 이름 검색
-        if (StringUtils.hasText(orderSearch.getMemberName())) {
-            if (isFirstCondition) {
-                jpql += " where";
-                isFirstCondition = false;
-            } else {
-                jpql += " and";
-            }
-            jpql += " m.name like :name";
-        }
-
-        TypedQuery<Order> query = em.createQuery(jpql, Order.class)
+        checkNamedQueryCriteria(orderSearch);
+        TypedQuery<Order> query = em.createNamedQuery(searchQueryName("Order.search", orderSearch), Order.class)
                 .setMaxResults(1000);
-
-        if (orderSearch.getOrderStatus() != null) {
-            query = query.setParameter("status", orderSearch.getOrderStatus());
-        }
-        if (StringUtils.hasText(orderSearch.getMemberName())) {
-            query = query.setParameter("name", orderSearch.getMemberName());
-        }
-
+        bindSearchParameters(query, orderSearch);
         return query.getResultList();
     }
 
     /**
      * JPA Criteria
+     * Criteria 는 호출마다 트리를 새로 만들어야 한다. ⇒ 조건 조합마다 파라미터로 된 Criteria 를 로딩 시점에 한 번만 만들어서
+     * 네임드 쿼리로 등록해 두고 (registerCriteriaQueries) 호출 때는 꺼내 쓴다. (트리를 만드는 비용만 없어진다.)
+     * 주의 : Criteria 는 HQL 문자열이 없어서 쿼리 plan 캐시에 들어가지 않는다. ⇒ SQL 로 바꾸는 해석(translate)은 호출마다 다시 한다.
+     *   (Hibernate 6.5 의 hibernate.criteria.plan_cache_enabled 는 Criteria 인스턴스 기준이라, 호출마다 트리를 복사하는 네임드 쿼리는 캐시되지 않는다.)
+     *   해석 비용까지 없애야 하면 findAllByString(HQL 네임드 쿼리)이나 findAll(Querydsl ⇒ 같은 JPQL 문자열)을 쓴다.
      */
     public List<Order> findAllByCriteria(OrderSearch orderSearch) {
-        CriteriaBuilder cb = em.getCriteriaBuilder();
+        checkNamedQueryCriteria(orderSearch);
+        TypedQuery<Order> query = em.createNamedQuery(searchQueryName(CRITERIA_PREFIX, orderSearch), Order.class)
+                .setMaxResults(1000);
+        bindSearchParameters(query, orderSearch);
+        return query.getResultList();
+    }
+
+    @PostConstruct
+    void registerCriteriaQueries() {
+        EntityManagerFactory emf = em.getEntityManagerFactory();
+        try (EntityManager registering = emf.createEntityManager()) {
+            for (boolean byStatus : new boolean[]{false, true}) {
+                for (boolean byMembers : new boolean[]{false, true}) {
+                    String name = searchQueryName(CRITERIA_PREFIX, byStatus, byMembers);
+                    emf.addNamedQuery(name, registering.createQuery(searchCriteria(registering.getCriteriaBuilder(), byStatus, byMembers)));
+                }
+            }
+        }
+    }
+
+    private CriteriaQuery<Order> searchCriteria(CriteriaBuilder cb, boolean byStatus, boolean byMembers) {
         CriteriaQuery<Order> cq = cb.createQuery(Order.class);
         Root<Order> o = cq.from(Order.class);
         Join<Object, Object> m = o.join("member", JoinType.INNER);
@@ -93,20 +111,62 @@ public class OrderRepository {
         List<Predicate> criteria = new ArrayList<>();
 
         //주문 상태 검색
+        if (byStatus) {
+            criteria.add(cb.equal(o.get("status"), cb.parameter(OrderStatus.class, "status")));
+        }
+        //회원 이름 검색 (이름 토큰 서브쿼리 ⇒ Order.MEMBER_IDS_BY_NAME 과 같은 쿼리)
+        if (byMembers) {
+            Subquery<Long> memberIds = cq.subquery(Long.class);
+            Root<MemberNameToken> t = memberIds.from(MemberNameToken.class);
+            Join<Object, Object> tm = t.join("member", JoinType.INNER);
+            Expression<String> normalizedName = cb.function("replace", String.class, cb.lower(tm.get("name")), cb.literal(" "), cb.literal(""));
+            memberIds.select(t.get("member").get("id"))
+                    .where(t.get("token").in(cb.parameter(String.class, "nameTokens")),
+                            cb.like(normalizedName, cb.parameter(String.class, "namePattern"), '!'))
+                    .groupBy(t.get("member").get("id"))
+                    .having(cb.equal(cb.count(t), cb.parameter(Long.class, "nameTokenCount")));
+            criteria.add(m.get("id").in(memberIds));
+        }
+
+        cq.select(o).where(cb.and(criteria.toArray(new Predicate[criteria.size()])));
+        return cq;
+    }
+
+    // 네임드 쿼리는 회원 이름, 주문 상태 조합만 등록되어 있다. ⇒ 다른 조건을 무시하고 더 많은 주문을 돌려주지 않도록 거부
+    private static void checkNamedQueryCriteria(OrderSearch orderSearch) {
+        if (orderSearch.hasExtendedCriteria()) {
+            throw new IllegalArgumentException("findAllByString, findAllByCriteria 는 회원 이름, 주문 상태 조건만 지원합니다. (findAll 을 사용)");
+        }
+    }
+
+    private static String searchQueryName(String prefix, OrderSearch orderSearch) {
+        return searchQueryName(prefix, orderSearch.getOrderStatus() != null, StringUtils.hasText(orderSearch.getMemberName()));
+    }
+
+    private static String searchQueryName(String prefix, boolean byStatus, boolean byMembers) {
+        if (byStatus && byMembers) {
+            return prefix + "ByStatusAndMembers";
+        }
+        if (byStatus) {
+            return prefix + "ByStatus";
+        }
+        if (byMembers) {
+            return prefix + "ByMembers";
+        }
+        return prefix;
+    }
+
+    private static void bindSearchParameters(TypedQuery<Order> query, OrderSearch orderSearch) {
         if (orderSearch.getOrderStatus() != null) {
-            Predicate status = cb.equal(o.get("status"), orderSearch.getOrderStatus());
-            criteria.add(status);
+            query.setParameter("status", orderSearch.getOrderStatus());
         }
-        //회원 이름 검색
         if (StringUtils.hasText(orderSearch.getMemberName())) {
-            Predicate name =
-                    cb.like(m.<String>get("name"), "%" + orderSearch.getMemberName() + "%");
-            criteria.add(name);
+            String normalized = MemberNameTokens.normalize(orderSearch.getMemberName());
+            Set<String> tokens = MemberNameTokens.queryTokens(normalized);
+            query.setParameter("nameTokens", tokens);
+            query.setParameter("namePattern", MemberNameTokens.containsPattern(normalized));
+            query.setParameter("nameTokenCount", (long) tokens.size());
         }
-
-        cq.where(cb.and(criteria.toArray(new Predicate[criteria.size()])));
-        TypedQuery<Order> query = em.createQuery(cq).setMaxResults(1000);
-        return query.getResultList();
     }
 
     /*
@@ -114,24 +174,168 @@ public class OrderRepository {
     * 꼭 동적 쿼리가 아니여도 정적 쿼리인 경우에도 Querydsl 을 사용하는 것이 좋다.
     * 직관적인 문법, 컴파일 시점에 빠른 문법 오류 발견, 코드 자동완성, 코드 재사용(이것은 자바다), JPQL new 명령어와는 비교가 안될 정도로 깔끔한 DTO 조회를 지원한다.*/
     public List<Order> findAll(OrderSearch orderSearch) {
-        JPAQueryFactory query = new JPAQueryFactory(em);
         QOrder order = QOrder.order;
         QMember member = QMember.member;
 
-        return query
+        return queryFactory
                 .select(order)
                 .from(order)
                 .join(order.member, member)
-                .where(statusEq(orderSearch.getOrderStatus()), nameLike(orderSearch.getMemberName()))
+                .where(searchConditions(orderSearch))
+                .orderBy(order.id.desc())
                 .limit(1000)
                 .fetch();
     }
 
-    private static BooleanExpression nameLike(String memberName) {
-        if (memberName == null) {
+    /* 주문 검색 + 키셋 페이징 (운영용 조회 API)
+    * 정렬 키 + order_id 복합 인덱스(idx_orders_date, idx_orders_total, 내림차순은 idx_orders_*_desc)를 정렬 순서대로 읽다가 limit 에서 멈춘다.
+    * ⇒ 뒤 페이지도 첫 페이지와 비용이 같다. member, delivery 는 DTO 에 필요하므로 패치 조인 (읽기 전용) */
+    public List<Order> search(OrderSearch orderSearch, OrderSearchCursor cursor, int limit) {
+        QOrder order = QOrder.order;
+        OrderSort sort = sortOf(orderSearch);
+
+        return queryFactory
+                .select(order)
+                .from(order)
+                .join(order.member, QMember.member).fetchJoin()
+                .join(order.delivery, QDelivery.delivery).fetchJoin()
+                .where(searchConditions(orderSearch))
+                .where(after(sort, cursor))
+                .orderBy(orderBy(sort))
+                .limit(limit)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .fetch();
+    }
+
+    /* 검색 결과 건수 (최대 cap + 1 까지만 센다.)
+    * 조건이 넓으면 count(*) 는 결과 전체를 읽는다. 인덱스로 id 만 cap + 1 개까지 읽고 멈춰서 "cap 건 이상" 인지만 알려준다. */
+    public long countUpTo(OrderSearch orderSearch, int cap) {
+        QOrder order = QOrder.order;
+        return queryFactory
+                .select(order.id)
+                .from(order)
+                .where(searchConditions(orderSearch))
+                .limit(cap + 1)
+                .fetch()
+                .size();
+    }
+
+    // 검색 조건에 맞는 주문 id 전체 (대량 취소용이라 limit 없음)
+    public List<Long> findIds(OrderSearch orderSearch) {
+        QOrder order = QOrder.order;
+
+        return queryFactory
+                .select(order.id)
+                .from(order)
+                .where(searchConditions(orderSearch))
+                .fetch();
+    }
+
+    // 값이 없는 조건은 null ⇒ Querydsl where 에서 무시된다.
+    private BooleanExpression[] searchConditions(OrderSearch orderSearch) {
+        return new BooleanExpression[]{
+                statusEq(orderSearch.getOrderStatus()),
+                memberNameContains(orderSearch.getMemberName()),
+                orderDateGoe(orderSearch.getOrderDateFrom()),
+                orderDateLt(orderSearch.getOrderDateTo()),
+                deliveryStatusEq(orderSearch.getDeliveryStatus()),
+                containsItem(orderSearch.getItemId()),
+                totalPriceGoe(orderSearch.getMinTotalPrice()),
+                totalPriceLoe(orderSearch.getMaxTotalPrice())
+        };
+    }
+
+    private BooleanExpression orderDateGoe(LocalDateTime from) {
+        return from == null ? null : QOrder.order.orderDate.goe(from);
+    }
+
+    private BooleanExpression orderDateLt(LocalDateTime to) {
+        return to == null ? null : QOrder.order.orderDate.lt(to);
+    }
+
+    private BooleanExpression deliveryStatusEq(DeliveryStatus deliveryStatus) {
+        return deliveryStatus == null ? null : QOrder.order.delivery.status.eq(deliveryStatus);
+    }
+
+    // 주문상품 조인 대신 exists ⇒ 주문 row 가 늘어나지 않고, idx_order_item_item_order 로 확인한다.
+    private BooleanExpression containsItem(Long itemId) {
+        if (itemId == null) {
             return null;
         }
-        return QMember.member.name.like(memberName);
+        QOrderItem orderItem = QOrderItem.orderItem;
+        return JPAExpressions.selectOne()
+                .from(orderItem)
+                .where(orderItem.order.eq(QOrder.order), orderItem.item.id.eq(itemId))
+                .exists();
+    }
+
+    private BooleanExpression totalPriceGoe(Integer min) {
+        return min == null ? null : QOrder.order.totalPrice.goe(min);
+    }
+
+    private BooleanExpression totalPriceLoe(Integer max) {
+        return max == null ? null : QOrder.order.totalPrice.loe(max);
+    }
+
+    private static OrderSort sortOf(OrderSearch orderSearch) {
+        return orderSearch.getSort() == null ? OrderSort.ID_DESC : orderSearch.getSort();
+    }
+
+    private OrderSpecifier<?>[] orderBy(OrderSort sort) {
+        QOrder order = QOrder.order;
+        return switch (sort) {
+            case ID_DESC -> new OrderSpecifier<?>[]{order.id.desc()};
+            case ORDER_DATE_DESC -> new OrderSpecifier<?>[]{order.orderDate.desc(), order.id.desc()};
+            case ORDER_DATE_ASC -> new OrderSpecifier<?>[]{order.orderDate.asc(), order.id.asc()};
+            case TOTAL_PRICE_DESC -> new OrderSpecifier<?>[]{order.totalPrice.desc(), order.id.desc()};
+            case TOTAL_PRICE_ASC -> new OrderSpecifier<?>[]{order.totalPrice.asc(), order.id.asc()};
+        };
+    }
+
+    /* 키셋 조건 (정렬 키, order_id) 가 커서보다 뒤인 것
+    * (key < :key) or (key = :key and id < :id) 는 or 때문에 인덱스 범위 검색이 안 될 수 있다.
+    * ⇒ key <= :key 를 따로 붙여서 인덱스 범위를 먼저 좁힌다. */
+    private BooleanExpression after(OrderSort sort, OrderSearchCursor cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        QOrder order = QOrder.order;
+        Long id = cursor.getOrderId();
+        return switch (sort) {
+            case ID_DESC -> order.id.lt(id);
+            case ORDER_DATE_DESC -> order.orderDate.loe(cursor.getOrderDate())
+                    .and(order.orderDate.lt(cursor.getOrderDate()).or(order.id.lt(id)));
+            case ORDER_DATE_ASC -> order.orderDate.goe(cursor.getOrderDate())
+                    .and(order.orderDate.gt(cursor.getOrderDate()).or(order.id.gt(id)));
+            case TOTAL_PRICE_DESC -> order.totalPrice.loe(cursor.getTotalPrice())
+                    .and(order.totalPrice.lt(cursor.getTotalPrice()).or(order.id.lt(id)));
+            case TOTAL_PRICE_ASC -> order.totalPrice.goe(cursor.getTotalPrice())
+                    .and(order.totalPrice.gt(cursor.getTotalPrice()).or(order.id.gt(id)));
+        };
+    }
+
+    /* 회원 이름 검색
+    * like '%이름%' 는 인덱스를 탈 수 없어서 회원 테이블 전체를 읽는다. ⇒ 이름 토큰 인덱스로 회원을 찾는 서브쿼리로 주문을 거른다.
+    * 회원 id 목록을 먼저 가져와서 in (...) 으로 넘기면 짧은 검색어(1~2글자)는 회원이 수천 명이라 바인딩 목록도 수천 개가 된다. ⇒ DB 안에서 처리한다.
+    * 토큰을 모두 가진 회원 중에서 정규화한 이름(공백 제거, 소문자)에 검색어가 들어있는 회원만 (trigram 이 떨어져서 나온 경우 제외) */
+    private BooleanExpression memberNameContains(String memberName) {
+        if (!StringUtils.hasText(memberName)) {
+            return null;
+        }
+        String normalized = MemberNameTokens.normalize(memberName);
+        Set<String> tokens = MemberNameTokens.queryTokens(normalized);
+
+        QMemberNameToken token = QMemberNameToken.memberNameToken;
+        QMember tokenMember = new QMember("tokenMember");
+        return QOrder.order.member.id.in(JPAExpressions
+                .select(token.member.id)
+                .from(token)
+                .join(token.member, tokenMember)
+                .where(token.token.in(tokens),
+                        Expressions.stringTemplate("replace(lower({0}), ' ', '')", tokenMember.name)
+                                .like(MemberNameTokens.containsPattern(normalized), '!'))
+                .groupBy(token.member.id)
+                .having(token.count().eq((long) tokens.size())));
     }
 
     private BooleanExpression statusEq(OrderStatus statusCond) {
@@ -141,13 +345,17 @@ public class OrderRepository {
         return QOrder.order.status.eq(statusCond);
     }
 
-    // 패치 조인은 JPA 실무에서 정말 많이 쓰이기 때문에 100% 이해해야 한다.
+    /* 패치 조인은 JPA 실무에서 정말 많이 쓰이기 때문에 100% 이해해야 한다.
+    * 아래 목록 조회(findAllWithMemberDelivery, findAllWithItem)는 화면/API 에서 DTO 로 바꾸기만 하고 수정하지 않는다.
+    * ⇒ org.hibernate.readOnly 힌트로 읽기 전용 엔티티로 로딩한다. 변경 감지용 스냅샷(엔티티 값 복사본)을 만들지 않아서 메모리가 절반 가까이 줄고,
+    *   flush 때 dirty checking 대상에서도 빠진다. (readOnly 트랜잭션이 아니어도, 트랜잭션 밖에서 호출돼도 똑같이 적용된다.) */
     public List<Order> findAllWithMemberDelivery() {
         return em.createQuery(
                 "select o from Order o" +
                         " join fetch o.member m" +
-                        " join fetch o.delivery d", Order.class
-        ).getResultList();
+                        " join fetch o.delivery d", Order.class)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultList();
     }
 
     public List<Order> findAllWithMemberDelivery(int offset, int limit) {
@@ -155,11 +363,34 @@ public class OrderRepository {
                 "select o from Order o" +
                         " join fetch o.member m" +
                         " join fetch o.delivery d", Order.class)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
                 .setFirstResult(offset)
                 .setMaxResults(limit)
                 .getResultList();
     }
 
+    /* 키셋(seek) 페이징
+    * offset 페이징은 앞의 offset 개 row 를 모두 읽고 버리기 때문에 뒤 페이지로 갈수록 느려진다. (O(offset))
+    * 마지막으로 받은 order_id(PK 인덱스)보다 작은 것부터 limit 개만 읽으므로 몇 번째 페이지든 비용이 같다.
+    * 컬렉션(orderItems)은 그대로 지연 로딩 ⇒ default_batch_fetch_size 로 IN 쿼리 한 번에 조회된다. */
+    public List<Order> findAllWithMemberDelivery(Long cursor, int limit) {
+        String jpql = "select o from Order o" +
+                " join fetch o.member m" +
+                " join fetch o.delivery d";
+        if (cursor != null) {
+            jpql += " where o.id < :cursor";
+        }
+        jpql += " order by o.id desc";
+
+        TypedQuery<Order> query = em.createQuery(jpql, Order.class)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .setMaxResults(limit);
+        if (cursor != null) {
+            query.setParameter("cursor", cursor);
+        }
+        return query.getResultList();
+    }
+
     // 컬렉션 패치 조인 = 1:N 패치 조인
     // ⭐컬렉션 패치 조인은 1개만 사용할 수 있다. 둘 이상을 사용하면 N:M 이 돼서 엄청나게 많이 뻥튀기가 된다.
     public List<Order> findAllWithItem() {
@@ -172,7 +403,88 @@ public class OrderRepository {
                         " join fetch o.member m" +
                         " join fetch o.delivery d" +
                         " join fetch o.orderItems oi" +
-                        " join fetch oi.item i", Order.class
-        ).getResultList();
+                        " join fetch oi.item i", Order.class)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultList();
+    }
+
+    /* 컬렉션 패치 조인 + 페이징 (2단계 조회)
+    * 1. ToOne 관계만 조인해서 페이지에 해당하는 order_id 만 DB 에서 페이징으로 가져온다. (row 뻥튀기가 없으므로 DB 페이징 가능)
+    * 2. 그 id 들에 대해서만 orderItems, item 까지 패치 조인한다. ⇒ 컬렉션도 쿼리 한 번, 메모리 페이징 경고(HHH90003004)도 없다. */
+    public List<Order> findAllWithItem(int offset, int limit) {
+        List<Long> orderIds = em.createQuery(
+                "select o.id from Order o" +
+                        " join o.member m" +
+                        " join o.delivery d" +
+                        " order by o.id", Long.class)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+
+        if (orderIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        return em.createQuery(
+                "select distinct o from Order o" +
+                        " join fetch o.member m" +
+                        " join fetch o.delivery d" +
+                        " join fetch o.orderItems oi" +
+                        " join fetch oi.item i" +
+                        " where o.id in :orderIds" +
+                        " order by o.id", Order.class)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .setParameter("orderIds", orderIds)
+                .getResultList();
+    }
+
+    // ===== 대량 취소 (OrderService.cancelOrders) =====
+
+    // 아직 취소되지 않은 주문만 골라서 row 락을 건다. ⇒ 같은 주문을 동시에 취소해도 재고가 두 번 원복되지 않는다.
+    public List<Long> lockCancelableIds(Collection<Long> orderIds) {
+        return em.createQuery(
+                "select o.id from Order o" +
+                        " where o.id in :orderIds and o.status = :status", Long.class)
+                .setParameter("orderIds", orderIds)
+                .setParameter("status", OrderStatus.ORDER)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+    }
+
+    public long countDelivered(Collection<Long> orderIds) {
+        return em.createQuery(
+                "select count(o) from Order o" +
+                        " join o.delivery d" +
+                        " where o.id in :orderIds and d.status = :deliveryStatus", Long.class)
+                .setParameter("orderIds", orderIds)
+                .setParameter("deliveryStatus", DeliveryStatus.COMP)
+                .getSingleResult();
+    }
+
+    // 상품별 주문 수량 합계 [itemId, sum(count)]
+    public List<Object[]> sumQuantityByItem(Collection<Long> orderIds) {
+        return em.createQuery(
+                "select oi.item.id, sum(oi.count) from OrderItem oi" +
+                        " where oi.order.id in :orderIds" +
+                        " group by oi.item.id" +
+                        " order by oi.item.id", Object[].class)
+                .setParameter("orderIds", orderIds)
+                .getResultList();
+    }
+
+    /**
+     * 주문 상태를 한 번에 취소로 변경
+     * 벌크 update 는 영속성 컨텍스트를 거치지 않으므로 실행 후 영속성 컨텍스트를 비운다. (이미 조회된 Order, Item 이 DB 와 달라지지 않도록)
+     */
+    public int cancelAll(Collection<Long> orderIds) {
+        int canceled = em.createQuery(
+                "update Order o set o.status = :cancel" +
+                        " where o.id in :orderIds and o.status = :order")
+                .setParameter("cancel", OrderStatus.CANCEL)
+                .setParameter("order", OrderStatus.ORDER)
+                .setParameter("orderIds", orderIds)
+                .executeUpdate();
+        em.clear();
+        return canceled;
     }
 }
@@ -1,12 +1,46 @@
 package jpabook.jpashop.repository;
 
+import jpabook.jpashop.domain.DeliveryStatus;
 import jpabook.jpashop.domain.OrderStatus;
 import lombok.Getter;
 import lombok.Setter;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.util.StringUtils;
 
+import java.time.LocalDateTime;
+
+/**
+ * 주문 검색 조건 (값이 없는 조건은 무시한다.)
+ * memberName, orderStatus 외의 조건은 Querydsl 경로(findAll, findIds, search)에서만 지원한다.
+ * findAllByString, findAllByCriteria (네임드 쿼리) 에 넘기면 조건이 조용히 빠지지 않도록 IllegalArgumentException 을 던진다.
+ */
 @Getter @Setter
 public class OrderSearch {
 
     private String memberName;              // 회원 이름
     private OrderStatus orderStatus;        // 주문 상태 [ORDER, CANCEL]
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime orderDateFrom;    // 주문 일시 >= from
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime orderDateTo;      // 주문 일시 < to
+
+    private DeliveryStatus deliveryStatus;  // 배송 상태 [READY, COMP]
+    private Long itemId;                    // 이 상품이 포함된 주문
+    private Integer minTotalPrice;          // 주문 금액 >= min
+    private Integer maxTotalPrice;          // 주문 금액 <= max
+
+    private OrderSort sort = OrderSort.ID_DESC;     // 정렬 (search 의 키셋 페이징 기준)
+
+    // 검색 조건이 하나라도 있는지 (정렬은 조건이 아니다.)
+    public boolean hasCriteria() {
+        return StringUtils.hasText(memberName) || orderStatus != null || hasExtendedCriteria();
+    }
+
+    // 회원 이름, 주문 상태 외의 조건이 있는지 (네임드 쿼리 경로는 지원하지 않는다.)
+    public boolean hasExtendedCriteria() {
+        return orderDateFrom != null || orderDateTo != null
+                || deliveryStatus != null || itemId != null
+                || minTotalPrice != null || maxTotalPrice != null;
+    }
 }
@@ -0,0 +1,83 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.exception.InvalidRequestException;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * 주문 검색 키셋 커서 = 마지막으로 받은 주문의 (정렬 키 값, order_id)
+ * 정렬마다 키가 다르므로 정렬 이름도 같이 넣고, 다른 정렬로 넘어온 커서는 거부한다.
+ * 클라이언트에게는 불투명(opaque) 문자열로 내려준다. (api.CursorResult 와 같은 방식)
+ */
+@Getter
+public class OrderSearchCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final OrderSort sort;
+    private final String key;       // 정렬 키 값 (ID_DESC 면 없음)
+    private final Long orderId;
+
+    private OrderSearchCursor(OrderSort sort, String key, Long orderId) {
+        this.sort = sort;
+        this.key = key;
+        this.orderId = orderId;
+    }
+
+    // 주문 시간은 not null 컬럼이지만 (V5) 아직 저장 안 된 주문 등으로 null 이 들어오면 NPE 대신 잘못된 인자로 거부한다.
+    public static OrderSearchCursor of(OrderSort sort, Order last) {
+        String key = switch (sort) {
+            case ID_DESC -> "";
+            case ORDER_DATE_DESC, ORDER_DATE_ASC -> {
+                if (last.getOrderDate() == null) {
+                    throw new IllegalArgumentException("주문 시간이 없는 주문으로는 커서를 만들 수 없습니다. orderId = " + last.getId());
+                }
+                yield last.getOrderDate().toString();
+            }
+            case TOTAL_PRICE_DESC, TOTAL_PRICE_ASC -> Integer.toString(last.getTotalPrice());
+        };
+        return new OrderSearchCursor(sort, key, last.getId());
+    }
+
+    public String encode() {
+        String raw = sort.name() + SEPARATOR + key + SEPARATOR + orderId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static OrderSearchCursor decode(String cursor, OrderSort sort) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", -1);
+            if (parts.length != 3 || !parts[0].equals(sort.name())) {
+                throw new InvalidRequestException("잘못된 커서입니다.");
+            }
+            OrderSearchCursor decoded = new OrderSearchCursor(sort, parts[1], Long.valueOf(parts[2]));
+            decoded.validateKey();
+            return decoded;
+        } catch (RuntimeException e) {      // Base64, NumberFormat, DateTimeParse
+            throw new InvalidRequestException("잘못된 커서입니다.", e);
+        }
+    }
+
+    public LocalDateTime getOrderDate() {
+        return LocalDateTime.parse(key);
+    }
+
+    public int getTotalPrice() {
+        return Integer.parseInt(key);
+    }
+
+    private void validateKey() {
+        switch (sort) {
+            case ORDER_DATE_DESC, ORDER_DATE_ASC -> getOrderDate();
+            case TOTAL_PRICE_DESC, TOTAL_PRICE_ASC -> getTotalPrice();
+            default -> { }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package jpabook.jpashop.repository;
+
+/**
+ * 주문 검색 정렬 키
+ * 모든 정렬은 같은 값끼리 order_id 로 한 번 더 정렬한다. ⇒ (정렬 키, order_id) 가 유일해서 키셋 커서로 쓸 수 있다.
+ */
+public enum OrderSort {
+    ID_DESC,            // 최근 주문 순 (기본)
+    ORDER_DATE_DESC,
+    ORDER_DATE_ASC,
+    TOTAL_PRICE_DESC,
+    TOTAL_PRICE_ASC
+}
@@ -0,0 +1,66 @@
+package jpabook.jpashop.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import jpabook.jpashop.domain.Order;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.SelectionQuery;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 대량 주문 조회 (StatelessSession)
+ * StatelessSession 은 영속성 컨텍스트가 없다. ⇒ 1차 캐시, 변경 감지 스냅샷, 2차 캐시, 지연 로딩이 모두 없고 읽은 엔티티는 바로 GC 대상이 된다.
+ * 그래서 member, delivery 처럼 필요한 연관관계는 반드시 패치 조인으로 같이 읽어야 한다. (컬렉션 orderItems 는 읽지 않는다.)
+ * 스프링 트랜잭션과 별개의 커넥션을 쓰므로 트랜잭션 밖에서 읽기 전용으로만 사용한다.
+ */
+@Repository
+public class OrderStatelessReader {
+
+    private final SessionFactory sessionFactory;
+
+    public OrderStatelessReader(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    // 주문 전체를 order_id 순서로 chunkSize 개씩 키셋 페이징하면서 넘긴다. ⇒ 주문이 몇 건이든 힙 사용량이 chunk 크기로 일정하다.
+    public void forEachWithMemberDelivery(int chunkSize, Consumer<Order> consumer) {
+        forEachWithMemberDelivery(null, chunkSize, consumer);
+    }
+
+    // startAfter 다음 주문부터 (중간에 끊긴 작업을 마지막으로 처리한 order_id 부터 이어서 할 때)
+    public void forEachWithMemberDelivery(Long startAfter, int chunkSize, Consumer<Order> consumer) {
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            Long after = startAfter;
+            while (true) {
+                List<Order> chunk = findChunk(session, after, chunkSize);
+                chunk.forEach(consumer);
+                if (chunk.size() < chunkSize) {
+                    return;
+                }
+                after = chunk.get(chunk.size() - 1).getId();
+            }
+        }
+    }
+
+    private List<Order> findChunk(StatelessSession session, Long after, int chunkSize) {
+        String hql = "select o from Order o" +
+                " join fetch o.member m" +
+                " join fetch o.delivery d";
+        if (after != null) {
+            hql += " where o.id > :after";
+        }
+        hql += " order by o.id";
+
+        SelectionQuery<Order> query = session.createSelectionQuery(hql, Order.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, chunkSize)
+                .setMaxResults(chunkSize);
+        if (after != null) {
+            query.setParameter("after", after);
+        }
+        return query.getResultList();
+    }
+}
@@ -0,0 +1,155 @@
+package jpabook.jpashop.repository.order;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryDto;
+import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 주문 DTO 캐시 (order_id → DTO)
+ * findOrderDtos(), findAllByDto_optimization() 는 요청마다 같은 DTO 를 다시 만든다. 배송이 끝난 주문은 거의 바뀌지 않으므로
+ * 주문 id 한 페이지(키셋)만 DB 에서 가져오고, DTO 는 캐시에서 꺼내고, 캐시에 없는 주문만 IN 쿼리로 조회한다.
+ * 크기 제한(W-TinyLFU) + TTL. 주문/취소, 회원 이름/상품 이름 변경 시 커밋 후에 무효화한다.
+ */
+@Component
+public class OrderDtoCache {
+
+    private static final int MISS_CHUNK_SIZE = 1000;       // IN 절 파라미터 수 제한
+    private static final int VERSION_SLOTS = 1024;         // 2의 거듭제곱
+
+    private final OrderSimpleQueryRepository orderSimpleQueryRepository;
+    private final OrderQueryRepository orderQueryRepository;
+
+    private final Cache<Long, OrderSimpleQueryDto> simpleOrders;
+    private final Cache<Long, OrderQueryDto> orders;
+
+    // 무효화 버전 (주문 id 를 VERSION_SLOTS 칸으로 나눠서 센다. 같은 칸의 다른 주문이 무효화되면 한 번 캐시에 못 넣을 뿐이다.)
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_SLOTS);
+    private final AtomicLong globalVersion = new AtomicLong();
+
+    public OrderDtoCache(OrderSimpleQueryRepository orderSimpleQueryRepository,
+                         OrderQueryRepository orderQueryRepository,
+                         MeterRegistry meterRegistry,
+                         @Value("${jpashop.order-dto-cache.maximum-size:100000}") long maximumSize,
+                         @Value("${jpashop.order-dto-cache.ttl:10m}") Duration ttl) {
+        this.orderSimpleQueryRepository = orderSimpleQueryRepository;
+        this.orderQueryRepository = orderQueryRepository;
+
+        this.simpleOrders = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.orders = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, simpleOrders, "orderSimpleDto");
+        CaffeineCacheMetrics.monitor(meterRegistry, orders, "orderDto");
+    }
+
+    public List<OrderSimpleQueryDto> findOrderDtos(Long cursor, int limit) {
+        return find(simpleOrders, orderSimpleQueryRepository.findOrderIds(cursor, limit),
+                orderSimpleQueryRepository::findOrderDtos, OrderSimpleQueryDto::getOrderId);
+    }
+
+    public List<OrderQueryDto> findAllByDto(Long cursor, int limit) {
+        return find(orders, orderSimpleQueryRepository.findOrderIds(cursor, limit),
+                orderQueryRepository::findAllByDto, OrderQueryDto::getOrderId);
+    }
+
+    public void invalidateAfterCommit(Collection<Long> orderIds) {
+        runAfterCommit(() -> {
+            orderIds.forEach(id -> versions.incrementAndGet(versionIndex(id)));      // 버전을 먼저 올리고 지운다. (find 의 재확인 참고)
+            simpleOrders.invalidateAll(orderIds);
+            orders.invalidateAll(orderIds);
+        });
+    }
+
+    // 회원 이름, 상품 이름처럼 여러 주문 DTO 에 들어가는 값이 바뀐 경우
+    public void invalidateAllAfterCommit() {
+        runAfterCommit(() -> {
+            globalVersion.incrementAndGet();
+            simpleOrders.invalidateAll();
+            orders.invalidateAll();
+        });
+    }
+
+    /* 캐시에 있는 것은 꺼내고, 없는 것만 MISS_CHUNK_SIZE 개씩 IN 쿼리로 조회해서 넣는다.
+    * 조회하는 동안 그 주문이 무효화됐으면(버전이 바뀜) 커밋 전에 읽은 옛 DTO 일 수 있으므로 캐시에 넣지 않는다. (이번 응답에만 쓴다.)
+    * 넣은 직후에 한 번 더 확인한다. ⇒ 확인과 put 사이에 무효화가 끼어들어도 무효화 쪽이 버전을 먼저 올리므로 둘 중 하나가 지운다. */
+    private <T> List<T> find(Cache<Long, T> cache, List<Long> orderIds,
+                             Function<List<Long>, List<T>> loader, Function<T, Long> idGetter) {
+        Map<Long, T> found = new HashMap<>(cache.getAllPresent(orderIds));
+        List<Long> missing = orderIds.stream()
+                .filter(id -> !found.containsKey(id))
+                .collect(Collectors.toList());
+
+        for (int from = 0; from < missing.size(); from += MISS_CHUNK_SIZE) {
+            List<Long> chunk = missing.subList(from, Math.min(from + MISS_CHUNK_SIZE, missing.size()));
+            Map<Long, Long> before = chunk.stream().collect(Collectors.toMap(Function.identity(), this::version));
+            for (T dto : loader.apply(chunk)) {
+                Long orderId = idGetter.apply(dto);
+                found.put(orderId, dto);
+                long version = before.get(orderId);
+                if (version(orderId) == version) {
+                    cache.put(orderId, dto);
+                    if (version(orderId) != version) {
+                        cache.invalidate(orderId);
+                    }
+                }
+            }
+        }
+        return ordered(orderIds, found);
+    }
+
+    // 주문 하나의 버전 = 전체 무효화 횟수 + 그 주문이 속한 칸의 무효화 횟수 (둘 다 늘어나기만 하므로 합이 같으면 그 사이에 무효화가 없었다.)
+    private long version(Long orderId) {
+        return globalVersion.get() + versions.get(versionIndex(orderId));
+    }
+
+    private static int versionIndex(Long orderId) {
+        return (int) (orderId & (VERSION_SLOTS - 1));
+    }
+
+    // id 목록 순서대로 (조회 사이에 삭제된 주문은 빠진다.)
+    private static <T> List<T> ordered(List<Long> orderIds, Map<Long, T> found) {
+        return orderIds.stream()
+                .map(found::get)
+                .filter(dto -> dto != null)
+                .collect(Collectors.toList());
+    }
+
+    private void runAfterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
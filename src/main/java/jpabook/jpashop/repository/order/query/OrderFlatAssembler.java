@@ -0,0 +1,96 @@
+package jpabook.jpashop.repository.order.query;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * v6 (findAllByDto_flat) 의 flat 결과를 OrderQueryDto 트리로 조립한다.
+ * 기존 groupingBy 방식은 row 마다 key 용 OrderQueryDto 를 새로 만들고 여러 필드로 hashCode 를 계산한 뒤, 결과를 다시 OrderQueryDto 로 감쌌다.
+ * 여기서는 orderId 하나로만 묶고 OrderQueryDto 는 주문당 한 번만 만든다.
+ * 결과 순서는 flat row 에서 주문이 처음 나온 순서(= SQL order by 순서)를 그대로 유지한다.
+ */
+public final class OrderFlatAssembler {
+
+    // 이 크기 이상이면 fork-join 으로 나눠서 조립한다.
+    static final int PARALLEL_THRESHOLD = 50_000;
+    private static final int SEGMENT_SIZE = 10_000;
+
+    private OrderFlatAssembler() {
+    }
+
+    public static List<OrderQueryDto> assemble(List<OrderFlatDto> flats) {
+        if (flats.size() >= PARALLEL_THRESHOLD) {
+            return assembleParallel(flats);
+        }
+        return assembleSequential(flats);
+    }
+
+    public static List<OrderQueryDto> assembleSequential(List<OrderFlatDto> flats) {
+        return new ArrayList<>(group(flats, 0, flats.size()).values());
+    }
+
+    public static List<OrderQueryDto> assembleParallel(List<OrderFlatDto> flats) {
+        return new ArrayList<>(ForkJoinPool.commonPool().invoke(new GroupTask(flats, 0, flats.size())).values());
+    }
+
+    private static LinkedHashMap<Long, OrderQueryDto> group(List<OrderFlatDto> flats, int from, int to) {
+        LinkedHashMap<Long, OrderQueryDto> orders = new LinkedHashMap<>();
+        for (int i = from; i < to; i++) {
+            OrderFlatDto flat = flats.get(i);
+            OrderQueryDto order = orders.get(flat.getOrderId());
+            if (order == null) {
+                order = new OrderQueryDto(flat.getOrderId(), flat.getName(), flat.getOrderDate(),
+                        flat.getOrderStatus(), flat.getAddress(), new ArrayList<>());
+                orders.put(flat.getOrderId(), order);
+            }
+            order.getOrderItems().add(new OrderItemQueryDto(flat.getOrderId(),
+                    flat.getItemName(), flat.getOrderPrice(), flat.getCount()));
+        }
+        return orders;
+    }
+
+    /**
+     * 구간을 반으로 나눠 각각 조립한 뒤 왼쪽 결과 뒤에 오른쪽 결과를 이어 붙인다.
+     * 한 주문의 row 가 경계에 걸쳐 있으면 오른쪽 orderItems 를 왼쪽 주문에 합치기 때문에 순서와 결과 모두 순차 조립과 같다.
+     */
+    static class GroupTask extends RecursiveTask<LinkedHashMap<Long, OrderQueryDto>> {
+
+        private final List<OrderFlatDto> flats;
+        private final int from;
+        private final int to;
+
+        GroupTask(List<OrderFlatDto> flats, int from, int to) {
+            this.flats = flats;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected LinkedHashMap<Long, OrderQueryDto> compute() {
+            if (to - from <= SEGMENT_SIZE) {
+                return group(flats, from, to);
+            }
+
+            int mid = (from + to) >>> 1;
+            GroupTask left = new GroupTask(flats, from, mid);
+            GroupTask right = new GroupTask(flats, mid, to);
+            left.fork();
+            LinkedHashMap<Long, OrderQueryDto> rightResult = right.compute();
+            LinkedHashMap<Long, OrderQueryDto> leftResult = left.join();
+
+            for (Map.Entry<Long, OrderQueryDto> e : rightResult.entrySet()) {
+                OrderQueryDto existing = leftResult.get(e.getKey());
+                if (existing == null) {
+                    leftResult.put(e.getKey(), e.getValue());
+                } else {
+                    existing.getOrderItems().addAll(e.getValue().getOrderItems());
+                }
+            }
+            return leftResult;
+        }
+    }
+}
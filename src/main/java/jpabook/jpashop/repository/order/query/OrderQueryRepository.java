@@ -2,11 +2,17 @@ package jpabook.jpashop.repository.order.query;
 
 import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Repository
 @RequiredArgsConstructor
@@ -36,6 +42,61 @@ public class OrderQueryRepository {
         return result;
     }
 
+    /* 전체 주문 스트리밍 (export 용)
+    * findAllByDto_optimization 은 getResultList() 로 전체 결과를 메모리에 올리지만, 여기서는 order_id 순서로 커서(스트림)를 열어두고
+    * chunkSize 개씩 끊어서 orderItems 를 IN 쿼리로 채운 뒤 바로 consumer 로 넘긴다. ⇒ 테이블 크기와 상관없이 메모리에는 chunk 하나만 올라간다.
+    * 스트림(커서)이 열려 있는 동안 커넥션을 잡고 있어야 하기 때문에 트랜잭션 안에서 실행한다. */
+    @Transactional(readOnly = true)
+    public void streamAllByDto(int chunkSize, Consumer<OrderQueryDto> consumer) {
+        try (Stream<OrderQueryDto> orders = em.createQuery(
+                        "select new jpabook.jpashop.repository.order.query.OrderQueryDto(o.id, m.name, o.orderDate, o.status, d.address)" +
+                                " from Order o" +
+                                " join o.member m" +
+                                " join o.delivery d" +
+                                " order by o.id", OrderQueryDto.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, chunkSize)
+                .getResultStream()) {
+
+            List<OrderQueryDto> chunk = new ArrayList<>(chunkSize);
+            orders.forEach(o -> {
+                chunk.add(o);
+                if (chunk.size() == chunkSize) {
+                    flushChunk(chunk, consumer);
+                }
+            });
+            if (!chunk.isEmpty()) {
+                flushChunk(chunk, consumer);
+            }
+        }
+    }
+
+    private void flushChunk(List<OrderQueryDto> chunk, Consumer<OrderQueryDto> consumer) {
+        Map<Long, List<OrderItemQueryDto>> orderItemMap = findOrderItemMap(toOrderIds(chunk));
+        for (OrderQueryDto o : chunk) {
+            o.setOrderItems(orderItemMap.getOrDefault(o.getOrderId(), List.of()));
+            consumer.accept(o);
+        }
+        chunk.clear();
+        em.clear();     // 영속성 컨텍스트를 주기적으로 비워서 1차 캐시가 계속 커지지 않도록 한다.
+    }
+
+    // findAllByDto_optimization 과 같은 방식(루트 1번 + 컬렉션 IN 1번)이지만 지정한 주문만 조회한다. (OrderDtoCache 의 캐시 miss 용)
+    public List<OrderQueryDto> findAllByDto(Collection<Long> orderIds) {
+        List<OrderQueryDto> result = em.createQuery(
+                        "select new jpabook.jpashop.repository.order.query.OrderQueryDto(o.id, m.name, o.orderDate, o.status, d.address)" +
+                                " from Order o" +
+                                " join o.member m" +
+                                " join o.delivery d" +
+                                " where o.id in :orderIds", OrderQueryDto.class)
+                .setParameter("orderIds", orderIds)
+                .getResultList();
+
+        Map<Long, List<OrderItemQueryDto>> orderItemMap = findOrderItemMap(toOrderIds(result));
+
+        result.forEach(o -> o.setOrderItems(orderItemMap.getOrDefault(o.getOrderId(), List.of())));
+        return result;
+    }
+
     private Map<Long, List<OrderItemQueryDto>> findOrderItemMap(List<Long> orderIds) {
         // loop 를 돌지않고 한 방에 가져온다. (IN 쿼리 사용)
         List<OrderItemQueryDto> orderItems = em.createQuery(
@@ -86,7 +147,8 @@ public class OrderQueryRepository {
                         " join o.member m" +
                         " join o.delivery d" +
                         " join o.orderItems oi" +
-                        " join oi.item i", OrderFlatDto.class)
+                        " join oi.item i" +
+                        " order by o.id", OrderFlatDto.class)
                 .getResultList();
     }
 }
@@ -4,6 +4,7 @@ import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 // 이렇게 따로 분리하는 것을 추천 (분리 하기 전에는 OrderRepository 에 findOrderDtos 메서드가 있었다.
@@ -21,4 +22,29 @@ public class OrderSimpleQueryRepository {
                         " join o.delivery d", OrderSimpleQueryDto.class
         ).getResultList();
     }
+
+    // 주문 id 키셋 페이지 (최신순, cursor 보다 작은 id 부터 limit 개) ⇒ OrderDtoCache 에서 사용
+    public List<Long> findOrderIds(Long cursor, int limit) {
+        if (cursor == null) {
+            return em.createQuery("select o.id from Order o order by o.id desc", Long.class)
+                    .setMaxResults(limit)
+                    .getResultList();
+        }
+        return em.createQuery("select o.id from Order o where o.id < :cursor order by o.id desc", Long.class)
+                .setParameter("cursor", cursor)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    // OrderDtoCache 에서 캐시에 없는 주문만 IN 쿼리로 조회할 때 사용
+    public List<OrderSimpleQueryDto> findOrderDtos(Collection<Long> orderIds) {
+        return em.createQuery(
+                "select new jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryDto(o.id, m.name, o.orderDate, o.status, d.address)" +
+                        " from Order o" +
+                        " join o.member m" +
+                        " join o.delivery d" +
+                        " where o.id in :orderIds", OrderSimpleQueryDto.class)
+                .setParameter("orderIds", orderIds)
+                .getResultList();
+    }
 }
@@ -0,0 +1,87 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Category;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.repository.CategoryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 카테고리 트리 조회
+ * - 트리 전체를 쿼리 한 번으로 읽어서 불변 스냅샷(CategoryTree)으로 메모리에 들고 있는다. (카테고리는 거의 바뀌지 않는다.)
+ * - "하위 카테고리까지 포함한 상품" 은 스냅샷에서 하위 id 를 모은 뒤 category_item 을 IN 쿼리 한 번으로 조회한다.
+ * - 카테고리를 저장/변경하면 트랜잭션이 끝난 뒤 스냅샷을 버리고, 다음 조회 때 다시 읽는다.
+ */
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class CategoryHierarchyService {
+
+    private final CategoryRepository categoryRepository;
+
+    // 스냅샷 + 세대 번호. 카테고리가 바뀔 때마다 세대를 올리고 스냅샷을 버린다.
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(new Snapshot(0, null));
+
+    public CategoryTree getTree() {
+        Snapshot current = snapshot.get();
+        if (current.tree != null) {
+            return current.tree;
+        }
+        // 읽기 전의 세대가 그대로일 때만 올린다. ⇒ 읽는 도중에 변경이 커밋됐으면(세대가 바뀜) 옛 트리를 올리지 않는다. (이번 호출에만 쓴다.)
+        // 동시에 여러 스레드가 읽으면 먼저 올린 것이 남는다.
+        CategoryTree tree = CategoryTree.of(categoryRepository.findAllFlat());
+        snapshot.compareAndSet(current, new Snapshot(current.generation, tree));
+        return tree;
+    }
+
+    public List<Item> findItemsInSubtree(Long categoryId) {
+        Set<Long> categoryIds = getTree().subtreeIds(categoryId);
+        if (categoryIds.isEmpty()) {
+            throw new IllegalArgumentException("존재하지 않는 카테고리입니다. id=" + categoryId);
+        }
+        return categoryRepository.findItemsInCategories(categoryIds);
+    }
+
+    @Transactional
+    public Long saveCategory(Category category) {
+        categoryRepository.save(category);
+        invalidate();
+        return category.getId();
+    }
+
+    // 카테고리를 변경한 트랜잭션 안에서 호출
+    public void invalidate() {
+        nextGeneration();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // 트랜잭션 도중에 다시 만들어진 스냅샷(다른 스레드가 읽은 커밋 전 옛 데이터, 또는 이 트랜잭션의 미커밋 데이터)도 버린다. 롤백돼도 마찬가지.
+            // 세대가 올라가므로 이 시점 전에 읽기 시작한 스레드도 나중에 옛 트리를 올리지 못한다.
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    nextGeneration();
+                }
+            });
+        }
+    }
+
+    private void nextGeneration() {
+        snapshot.updateAndGet(s -> new Snapshot(s.generation + 1, null));
+    }
+
+    private static final class Snapshot {
+        private final long generation;
+        private final CategoryTree tree;
+
+        private Snapshot(long generation, CategoryTree tree) {
+            this.generation = generation;
+            this.tree = tree;
+        }
+    }
+}
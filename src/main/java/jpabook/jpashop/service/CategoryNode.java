@@ -0,0 +1,31 @@
+package jpabook.jpashop.service;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// 메모리에 올려두는 카테고리 트리의 노드 (엔티티가 아니므로 영속성 컨텍스트와 무관하게 여러 스레드에서 읽어도 된다.)
+@Getter
+public class CategoryNode {
+
+    private final Long id;
+    private final String name;
+    private final Long parentId;
+    private final List<CategoryNode> children = new ArrayList<>();
+
+    CategoryNode(Long id, String name, Long parentId) {
+        this.id = id;
+        this.name = name;
+        this.parentId = parentId;
+    }
+
+    public List<CategoryNode> getChildren() {
+        return Collections.unmodifiableList(children);
+    }
+
+    void addChild(CategoryNode child) {
+        children.add(child);
+    }
+}
@@ -0,0 +1,60 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.repository.CategoryItemRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class CategoryService {
+
+    private final CategoryItemRepository categoryItemRepository;
+
+    private static final int CHUNK_SIZE = 1000;     // IN 절 파라미터 수 제한
+
+    /**
+     * 카테고리에 상품 연결 (상품 1000개당 insert 1번)
+     *
+     * @return 새로 연결된 상품 수
+     */
+    @Transactional
+    public int assignItems(Long categoryId, List<Long> itemIds) {
+        int assigned = 0;
+        for (int from = 0; from < itemIds.size(); from += CHUNK_SIZE) {
+            assigned += categoryItemRepository.assignAll(categoryId, itemIds.subList(from, Math.min(from + CHUNK_SIZE, itemIds.size())));
+        }
+        return assigned;
+    }
+
+    /**
+     * 카테고리에서 상품 제거 (상품 1000개당 delete 1번)
+     *
+     * @return 제거된 상품 수
+     */
+    @Transactional
+    public int unassignItems(Long categoryId, List<Long> itemIds) {
+        int unassigned = 0;
+        for (int from = 0; from < itemIds.size(); from += CHUNK_SIZE) {
+            unassigned += categoryItemRepository.unassignAll(categoryId, itemIds.subList(from, Math.min(from + CHUNK_SIZE, itemIds.size())));
+        }
+        return unassigned;
+    }
+
+    /**
+     * 카테고리 이동 (재분류) : 한 트랜잭션에서 제거 후 연결
+     */
+    @Transactional
+    public int moveItems(Long fromCategoryId, Long toCategoryId, List<Long> itemIds) {
+        unassignItems(fromCategoryId, itemIds);
+        return assignItems(toCategoryId, itemIds);
+    }
+
+    public List<Item> findItems(Long categoryId, int offset, int limit) {
+        return categoryItemRepository.findItems(categoryId, offset, limit);
+    }
+}
@@ -0,0 +1,64 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.repository.CategoryFlatDto;
+
+import java.util.*;
+
+/**
+ * 카테고리 트리 스냅샷 (불변)
+ * 만든 뒤에는 바뀌지 않고, 카테고리가 바뀌면 새 스냅샷으로 통째로 교체한다.
+ */
+public class CategoryTree {
+
+    private final Map<Long, CategoryNode> nodes;
+    private final List<CategoryNode> roots;
+
+    private CategoryTree(Map<Long, CategoryNode> nodes, List<CategoryNode> roots) {
+        this.nodes = nodes;
+        this.roots = roots;
+    }
+
+    public static CategoryTree of(List<CategoryFlatDto> rows) {
+        Map<Long, CategoryNode> nodes = new LinkedHashMap<>();
+        for (CategoryFlatDto row : rows) {
+            nodes.put(row.getId(), new CategoryNode(row.getId(), row.getName(), row.getParentId()));
+        }
+
+        List<CategoryNode> roots = new ArrayList<>();
+        for (CategoryNode node : nodes.values()) {
+            CategoryNode parent = node.getParentId() == null ? null : nodes.get(node.getParentId());
+            if (parent == null) {
+                roots.add(node);
+            } else {
+                parent.addChild(node);
+            }
+        }
+        return new CategoryTree(Collections.unmodifiableMap(nodes), Collections.unmodifiableList(roots));
+    }
+
+    public List<CategoryNode> getRoots() {
+        return roots;
+    }
+
+    public Optional<CategoryNode> find(Long id) {
+        return Optional.ofNullable(nodes.get(id));
+    }
+
+    // 자기 자신 + 모든 하위 카테고리 id (재귀 대신 스택, 잘못된 데이터로 순환이 생겨도 한 번씩만 방문)
+    public Set<Long> subtreeIds(Long id) {
+        Set<Long> ids = new LinkedHashSet<>();
+        CategoryNode start = nodes.get(id);
+        if (start == null) {
+            return ids;
+        }
+        Deque<CategoryNode> stack = new ArrayDeque<>();
+        stack.push(start);
+        while (!stack.isEmpty()) {
+            CategoryNode node = stack.pop();
+            if (ids.add(node.getId())) {
+                node.getChildren().forEach(stack::push);
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,110 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.exception.NotEnoughStockException;
+import jpabook.jpashop.repository.ItemRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 핫 상품(플래시 세일) 재고 원장 (jpashop.stock.hot-item-ids 로 지정한 상품만, 단일 인스턴스 기준)
+ * 주문 시 item row 를 update 하지 않고 메모리의 StripedStock 에서 예약만 한다. ⇒ 같은 상품 주문이 item row 락에서 줄 서지 않는다.
+ * 예약된 주문상품은 stockReconciled = false 로 저장되고, HotItemStockReconciler 가 모아서 item 테이블에 한 번에 반영한다.
+ *
+ * 원장의 재고 = item.stock_quantity - (아직 반영 안 된 주문상품 수량 합)
+ * ⇒ 주문 row 자체가 예약 기록이기 때문에 재시작하면 이 식으로 다시 계산해서 그대로 복구된다. (커밋 안 된 예약은 재시작하면 롤백되므로 빠져도 된다.)
+ * 실행 중에는 원장을 다시 읽지 않는다. (진행 중인 예약은 DB 에 없다.) ⇒ 관리자 재고 수정은 adjustAfterCommit 으로 차이만 반영한다.
+ */
+@Component
+public class HotItemStockLedger {
+
+    private final ItemRepository itemRepository;
+    private final Set<Long> hotItemIds;
+    private final int stripeCount;
+    private final ConcurrentHashMap<Long, StripedStock> stocks = new ConcurrentHashMap<>();
+
+    public HotItemStockLedger(ItemRepository itemRepository,
+                              @Value("${jpashop.stock.hot-item-ids:}") Set<Long> hotItemIds,
+                              @Value("${jpashop.stock.ledger-stripes:8}") int stripeCount) {
+        this.itemRepository = itemRepository;
+        this.hotItemIds = Set.copyOf(hotItemIds);
+        this.stripeCount = stripeCount;
+    }
+
+    public boolean isHot(Long itemId) {
+        return hotItemIds.contains(itemId);
+    }
+
+    public Set<Long> getHotItemIds() {
+        return hotItemIds;
+    }
+
+    /**
+     * 재고 예약 (트랜잭션이 롤백되면 자동으로 되돌린다.)
+     */
+    public void reserve(Long itemId, int quantity) {
+        StripedStock stock = stocks.computeIfAbsent(itemId,
+                id -> new StripedStock(itemRepository.findLedgerStock(id), stripeCount));
+        if (!stock.tryReserve(quantity)) {
+            throw new NotEnoughStockException("need more stock");
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        stock.release(quantity);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * 재고 반환 (주문 취소). DB 재고는 호출하는 쪽에서 원자적으로 더하고, 원장은 커밋된 뒤에 더한다.
+     */
+    public void releaseAfterCommit(Long itemId, int quantity) {
+        runAfterCommit(() -> {
+            StripedStock stock = stocks.get(itemId);
+            if (stock != null) {        // 아직 원장에 안 올라왔으면 다음에 DB 에서 읽을 때 반영된다.
+                stock.release(quantity);
+            }
+        });
+    }
+
+    /**
+     * 관리자가 재고를 직접 수정한 경우 (item 재고를 delta 만큼 바꿈) 원장에도 같은 delta 를 반영한다.
+     * 원장을 버리고 DB 에서 다시 읽으면 아직 커밋 안 된 예약분(다른 스레드가 옛 원장에서 예약 중인 것)이 빠져서 초과 판매된다.
+     * ⇒ 원장 인스턴스는 그대로 두고 수량만 고친다. 아직 원장이 없으면 다음 예약 때 커밋된 DB 값으로 만들어진다.
+     * (computeIfPresent 는 같은 상품의 computeIfAbsent 가 DB 에서 읽는 동안 기다린다. ⇒ 커밋 전 값으로 만들어진 원장에도 delta 가 반영된다.)
+     */
+    public void adjustAfterCommit(Long itemId, long delta) {
+        runAfterCommit(() -> stocks.computeIfPresent(itemId, (id, stock) -> {
+            stock.adjust(delta);
+            return stock;
+        }));
+    }
+
+    public long available(Long itemId) {
+        StripedStock stock = stocks.get(itemId);
+        return stock != null ? stock.available() : itemRepository.findLedgerStock(itemId);
+    }
+
+    private void runAfterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
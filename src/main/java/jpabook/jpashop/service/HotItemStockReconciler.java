@@ -0,0 +1,63 @@
+package jpabook.jpashop.service;
+
+import jakarta.annotation.PreDestroy;
+import jpabook.jpashop.repository.ItemRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * 핫 상품 원장에서 예약된 수량을 item 테이블에 모아서 반영하는 백그라운드 작업
+ * 아직 반영 안 된 주문상품을 최대 BATCH_SIZE 개씩 읽어서 item 재고 차감 1번 + 반영 표시 1번으로 처리한다. (같은 트랜잭션)
+ */
+@Slf4j
+@Component
+public class HotItemStockReconciler {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final HotItemStockLedger ledger;
+    private final ItemRepository itemRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public HotItemStockReconciler(HotItemStockLedger ledger, ItemRepository itemRepository,
+                                  PlatformTransactionManager transactionManager) {
+        this.ledger = ledger;
+        this.itemRepository = itemRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(fixedDelayString = "${jpashop.stock.reconcile-interval-ms:200}")
+    public void reconcile() {
+        for (Long itemId : ledger.getHotItemIds()) {
+            int reconciled;
+            do {
+                reconciled = transactionTemplate.execute(status -> reconcile(itemId));
+            } while (reconciled == BATCH_SIZE);
+        }
+    }
+
+    private int reconcile(Long itemId) {
+        List<Object[]> rows = itemRepository.findUnreconciledOrderItems(itemId, BATCH_SIZE);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> orderItemIds = rows.stream().map(r -> (Long) r[0]).toList();
+        int quantity = rows.stream().mapToInt(r -> (Integer) r[1]).sum();
+
+        itemRepository.applyReconciledStock(itemId, quantity, orderItemIds);
+        log.debug("hot item {} : {}건 / 수량 {} 반영", itemId, orderItemIds.size(), quantity);
+        return rows.size();
+    }
+
+    // 정상 종료 시 남은 예약분을 반영한다. (비정상 종료여도 주문 row 가 남아 있으므로 다음 실행 때 반영된다.)
+    @PreDestroy
+    public void flush() {
+        reconcile();
+    }
+}
@@ -0,0 +1,13 @@
+package jpabook.jpashop.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// 검색 결과 (인덱스에 저장된 값만으로 만든다. ⇒ 검색할 때 DB 조회 없음)
+@Getter
+@AllArgsConstructor
+public class ItemSearchDto {
+    private Long itemId;
+    private String name;
+    private Integer price;
+}
@@ -0,0 +1,57 @@
+package jpabook.jpashop.service;
+
+import jakarta.persistence.EntityManager;
+import jpabook.jpashop.domain.item.Item;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.search.engine.search.query.SearchResult;
+import org.hibernate.search.mapper.orm.Search;
+import org.hibernate.search.mapper.orm.session.SearchSession;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * 상품 검색 (Hibernate Search + Lucene)
+ * findAll() 로 전부 읽어서 걸러내는 대신 인덱스에서 찾는다.
+ * - 인덱스는 상품을 저장/변경(ItemService.saveItem, updateItem)한 트랜잭션이 커밋될 때 자동으로 갱신된다. (변경 감지, 검색 필드가 바뀐 경우만)
+ * - 재고 수량은 인덱스에 넣지 않았다. ⇒ 재고 차감 update 는 인덱스와 무관하다.
+ * - 검색 결과는 인덱스에 저장된 값(projection)으로 만들기 때문에 DB 를 조회하지 않는다.
+ */
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class ItemSearchService {
+
+    private final EntityManager em;
+
+    private static final String[] TEXT_FIELDS = {"name", "author", "artist", "director", "actor"};
+
+    /**
+     * 검색어로 상품 검색 (점수 순)
+     * - 앞글자 일치 (name_prefix, 가중치 2배)
+     * - 상품명/저자/아티스트/감독/배우 단어 일치 (오타 1글자 허용)
+     * - ISBN 정확히 일치
+     */
+    public SearchResult<ItemSearchDto> search(String keyword, int offset, int limit) {
+        SearchSession searchSession = Search.session(em);
+        return searchSession.search(Item.class)
+                .select(f -> f.composite()
+                        .from(f.id(Long.class), f.field("name", String.class), f.field("price", Integer.class))
+                        .as(ItemSearchDto::new))
+                .where(f -> f.bool()
+                        .should(f.match().field("name_prefix").matching(keyword).boost(2.0f))
+                        .should(f.match().fields(TEXT_FIELDS).matching(keyword).fuzzy(1))
+                        .should(f.match().field("isbn").matching(keyword)))
+                .sort(f -> f.score().then().field("price"))
+                .fetch(offset, limit);
+    }
+
+    /**
+     * 인덱스 전체 재생성 (인덱스를 지웠거나 DB 를 직접 수정한 경우)
+     */
+    public void reindex() throws InterruptedException {
+        Search.session(em).massIndexer(Item.class)
+                .threadsToLoadObjects(4)
+                .batchSizeToLoadObjects(500)
+                .startAndWait();
+    }
+}
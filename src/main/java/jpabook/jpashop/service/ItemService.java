@@ -3,6 +3,7 @@ package jpabook.jpashop.service;
 import jpabook.jpashop.domain.item.Book;
 import jpabook.jpashop.domain.item.Item;
 import jpabook.jpashop.repository.ItemRepository;
+import jpabook.jpashop.repository.order.OrderDtoCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -15,6 +16,8 @@ import java.util.List;
 public class ItemService {
 
     private final ItemRepository itemRepository;
+    private final HotItemStockLedger hotItemStockLedger;
+    private final OrderDtoCache orderDtoCache;
 
     @Transactional
     public void saveItem(Item item) {
@@ -25,10 +28,17 @@ public class ItemService {
     // public void updateItem(Long itemId, UpdateItemDto.itemDto) {  이런식으로 DTO 를 만들어서 하는 게 가장 좋다.
     @Transactional
     public void updateItem(Long itemId, String name, int price, int stockQuantity) {
-        Item findItem = itemRepository.findOne(itemId);     // 영속 상태이다.
+        boolean hot = hotItemStockLedger.isHot(itemId);
+        // 핫 상품은 재고 변경분(delta)을 원장에 반영해야 하므로 item row 를 잠그고 읽는다. (HotItemStockReconciler 의 차감과 섞이지 않게)
+        Item findItem = hot ? itemRepository.findOneForUpdate(itemId) : itemRepository.findOne(itemId);     // 영속 상태이다.
+        int stockDelta = stockQuantity - findItem.getStockQuantity();
         findItem.setName(name);
         findItem.setPrice(price);
         findItem.setStockQuantity(stockQuantity);
+        if (hot && stockDelta != 0) {
+            hotItemStockLedger.adjustAfterCommit(itemId, stockDelta);
+        }
+        orderDtoCache.invalidateAllAfterCommit();     // 주문 DTO 에 상품 이름이 들어있다.
         // @Transactional 을 통해 Commit 이 되고, JPA 는 flush(영속성 컨텍스트에서 변경된 것이 어떤건지 다 찾는다.) 를 날려서 변경 사항을 감지하고 update 를 실행한다.
     }
 
@@ -1,7 +1,10 @@
 package jpabook.jpashop.service;
 
+import jpabook.jpashop.datasource.ReadYourWrites;
 import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.repository.MemberNameTokenRepository;
 import jpabook.jpashop.repository.MemberRepository;
+import jpabook.jpashop.repository.order.OrderDtoCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -14,6 +17,9 @@ import java.util.List;
 public class MemberService {
 
     private final MemberRepository memberRepository;
+    private final MemberNameTokenRepository memberNameTokenRepository;
+    private final OrderDtoCache orderDtoCache;
+    private final ReadYourWrites readYourWrites;
 
     /* [생성자 주입]
     @Autowired 생성자 주입을 가장 많이 쓴다. 생성자가 하나일 경우 생략 가능 *생성자 주입일 경우 변수에 final 권장.
@@ -28,6 +34,8 @@ public class MemberService {
     public Long join(Member member) {
         validateDuplicateMember(member);
         memberRepository.save(member);
+        memberNameTokenRepository.index(member);     // 이름 검색 토큰
+        readYourWrites.markWritten();                // 커밋 후 잠시 동안은 조회도 primary 에서 (replica 복제 지연)
         return member.getId();
     }
 
@@ -58,5 +66,7 @@ public class MemberService {
     public void update(Long id, String name) {
         Member member = memberRepository.findById(id).get();
         member.setName(name);
+        memberNameTokenRepository.index(member);
+        orderDtoCache.invalidateAllAfterCommit();     // 주문 DTO 에 회원 이름이 들어있다.
     }
 }
@@ -0,0 +1,13 @@
+package jpabook.jpashop.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// 주문상품 한 줄 (상품 id, 수량)
+@Getter
+@AllArgsConstructor
+public class OrderLineDto {
+
+    private Long itemId;
+    private int count;
+}
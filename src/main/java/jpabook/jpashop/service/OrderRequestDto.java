@@ -0,0 +1,15 @@
+package jpabook.jpashop.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+// 주문 하나 (회원 + 주문상품 여러 줄)
+@Getter
+@AllArgsConstructor
+public class OrderRequestDto {
+
+    private Long memberId;
+    private List<OrderLineDto> lines;
+}
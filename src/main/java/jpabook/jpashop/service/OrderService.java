@@ -1,19 +1,24 @@
 package jpabook.jpashop.service;
 
+import jpabook.jpashop.datasource.ReadYourWrites;
 import jpabook.jpashop.domain.Delivery;
 import jpabook.jpashop.domain.Member;
 import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.domain.OrderItem;
 import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.exception.InvalidRequestException;
 import jpabook.jpashop.repository.ItemRepository;
 import jpabook.jpashop.repository.MemberRepository;
 import jpabook.jpashop.repository.OrderRepository;
 import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.repository.order.OrderDtoCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional(readOnly = true)
@@ -23,6 +28,11 @@ public class OrderService {
     private final OrderRepository orderRepository;
     private final MemberRepository memberRepository;
     private final ItemRepository itemRepository;
+    private final HotItemStockLedger hotItemStockLedger;
+    private final OrderDtoCache orderDtoCache;
+    private final ReadYourWrites readYourWrites;
+
+    private static final int CANCEL_CHUNK_SIZE = 1000;     // IN 절 파라미터 수 제한
 
     /**
      * 주문
@@ -31,37 +41,175 @@ public class OrderService {
     public Long order(Long memberId, Long itemId, int count) {
         // 엔티티 조회
         Member member = memberRepository.findById(memberId).get();
-        Item item = itemRepository.findOne(itemId);
+
+        // 재고 차감
+        Item item = reserveStock(itemId, count);
 
         // 배송정보 생성
         Delivery delivery = new Delivery();
         delivery.setAddress(member.getAddress());
 
         // 주문상품 생성
-        OrderItem orderItem = OrderItem.createOrderItem(item, item.getPrice(), count);
+        OrderItem orderItem = OrderItem.createReservedOrderItem(item, item.getPrice(), count);
+        orderItem.setStockReconciled(!hotItemStockLedger.isHot(itemId));
 
         // 주문 생성
         Order order = Order.createOrder(member, delivery, orderItem);
 
         // 주문 저장
         orderRepository.save(order);
+        orderDtoCache.invalidateAfterCommit(List.of(order.getId()));
+        readYourWrites.markWritten();       // 커밋 후 잠시 동안은 주문 목록도 primary 에서 조회
 
         return order.getId();
     }
 
+    /**
+     * 대량 주문 (요청 하나에 주문 여러 개, 주문 하나에 상품 여러 개)
+     * - 회원, 상품은 IN 쿼리 한 번씩으로 조회한다.
+     * - 재고는 상품별로 수량을 합쳐서 상품당 한 번만 차감한다. (상품 id 순서로 차감해서 동시 요청끼리 교착 상태가 생기지 않게)
+     * - 주문/배송/주문상품은 시퀀스(pooled) id 라 persist 때 insert 가 나가지 않고, flush 때 JDBC batch 로 묶여서 나간다. (hibernate.jdbc.batch_size)
+     * 하나라도 재고가 부족하면 전체가 롤백된다.
+     */
+    @Transactional
+    public List<Long> orders(List<OrderRequestDto> requests) {
+        Map<Long, Member> members = memberRepository.findAllById(requests.stream()
+                        .map(OrderRequestDto::getMemberId)
+                        .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Member::getId, Function.identity()));
+
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (OrderRequestDto request : requests) {
+            for (OrderLineDto line : request.getLines()) {
+                quantities.merge(line.getItemId(), line.getCount(), Integer::sum);
+            }
+        }
+        Map<Long, Item> items = itemRepository.findAll(quantities.keySet()).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+
+        // 재고 차감 (상품당 한 번)
+        quantities.forEach((itemId, quantity) -> {
+            if (!items.containsKey(itemId)) {
+                throw new IllegalArgumentException("존재하지 않는 상품입니다. id=" + itemId);
+            }
+            if (hotItemStockLedger.isHot(itemId)) {
+                hotItemStockLedger.reserve(itemId, quantity);
+            } else {
+                itemRepository.decreaseStock(itemId, quantity);
+            }
+        });
+
+        List<Long> orderIds = new ArrayList<>(requests.size());
+        for (OrderRequestDto request : requests) {
+            Member member = members.get(request.getMemberId());
+            if (member == null) {
+                throw new IllegalArgumentException("존재하지 않는 회원입니다. id=" + request.getMemberId());
+            }
+
+            Delivery delivery = new Delivery();
+            delivery.setAddress(member.getAddress());
+
+            OrderItem[] orderItems = request.getLines().stream()
+                    .map(line -> {
+                        Item item = items.get(line.getItemId());
+                        OrderItem orderItem = OrderItem.createReservedOrderItem(item, item.getPrice(), line.getCount());
+                        orderItem.setStockReconciled(!hotItemStockLedger.isHot(item.getId()));
+                        return orderItem;
+                    })
+                    .toArray(OrderItem[]::new);
+
+            Order order = Order.createOrder(member, delivery, orderItems);
+            orderRepository.save(order);
+            orderIds.add(order.getId());
+        }
+        orderDtoCache.invalidateAfterCommit(orderIds);
+        readYourWrites.markWritten();
+        return orderIds;
+    }
+
     /**
      * 주문 취소
      */
     @Transactional
     public void cancelOrder(Long orderId) {
-        // 주문 엔티티 조회
-        Order order = orderRepository.findOne(orderId);
+        // 주문 엔티티 조회 (대량 취소와 동시에 실행돼도 재고가 두 번 원복되지 않도록 row 락)
+        Order order = orderRepository.findOneForUpdate(orderId);
         // 주문 취소
-        order.cancel();
+        order.markCanceled();
+        // 재고 원복 (원자적)
+        for (OrderItem orderItem : order.getOrderItems()) {
+            Long itemId = orderItem.getItem().getId();
+            itemRepository.addStock(itemId, orderItem.getCount());
+            if (hotItemStockLedger.isHot(itemId)) {
+                hotItemStockLedger.releaseAfterCommit(itemId, orderItem.getCount());
+            }
+        }
+        // 주문 DTO 캐시 무효화
+        orderDtoCache.invalidateAfterCommit(List.of(orderId));
+    }
+
+    /**
+     * 대량 주문 취소
+     * 주문을 하나씩 조회해서 orderItems 를 지연 로딩하고 상품마다 재고를 더하는 대신, 집합 단위로 처리한다.
+     * - 취소 가능한(ORDER) 주문만 골라서 락 → 배송 완료 검증 1번 → 상품별 수량 합계 1번 → 상품당 재고 update 1번 → 상태 update 1번
+     * 배송 완료된 주문이 하나라도 있으면 전체를 취소하지 않는다. 이미 취소된 주문은 건너뛴다.
+     * 실행 후 영속성 컨텍스트를 비우므로, 호출하기 전에 조회한 엔티티는 다시 조회해서 사용해야 한다.
+     *
+     * @return 실제로 취소된 주문 수
+     */
+    @Transactional
+    public int cancelOrders(List<Long> orderIds) {
+        int canceled = 0;
+        for (int from = 0; from < orderIds.size(); from += CANCEL_CHUNK_SIZE) {
+            List<Long> chunk = orderIds.subList(from, Math.min(from + CANCEL_CHUNK_SIZE, orderIds.size()));
+            canceled += cancelChunk(chunk);
+        }
+        return canceled;
+    }
+
+    /* 검색 조건으로 대량 취소
+    * 조건이 하나도 없으면 (빈 요청, 필드 이름 오타) 전체 주문이 취소되므로 거부한다. */
+    @Transactional
+    public int cancelOrders(OrderSearch orderSearch) {
+        if (!orderSearch.hasCriteria()) {
+            throw new InvalidRequestException("취소할 주문의 검색 조건이 없습니다.");
+        }
+        return cancelOrders(orderRepository.findIds(orderSearch));
     }
 
-    // 검색
-    public List<Order> findOrders(OrderSearch orderSearch) {
-        return orderRepository.findAll(orderSearch);
+    private int cancelChunk(List<Long> orderIds) {
+        List<Long> cancelableIds = orderRepository.lockCancelableIds(orderIds);
+        if (cancelableIds.isEmpty()) {
+            return 0;
+        }
+
+        if (orderRepository.countDelivered(cancelableIds) > 0) {
+            throw new IllegalStateException("이미 배송 완료된 상품은 취소가 불가능합니다.");
+        }
+
+        for (Object[] row : orderRepository.sumQuantityByItem(cancelableIds)) {
+            Long itemId = (Long) row[0];
+            int quantity = ((Long) row[1]).intValue();
+            itemRepository.increaseStock(itemId, quantity);
+            if (hotItemStockLedger.isHot(itemId)) {
+                hotItemStockLedger.releaseAfterCommit(itemId, quantity);
+            }
+        }
+
+        orderDtoCache.invalidateAfterCommit(cancelableIds);
+        return orderRepository.cancelAll(cancelableIds);
+    }
+
+    /**
+     * 재고 차감
+     * - 일반 상품 : 조건부 update 로 원자적으로 차감 ⇒ 같은 상품에 동시에 주문이 몰려도 초과 판매가 없다.
+     * - 핫 상품 : 메모리 원장에서 예약만 하고 item 테이블 반영은 HotItemStockReconciler 가 모아서 한다. ⇒ item row 락 경합이 없다.
+     */
+    private Item reserveStock(Long itemId, int count) {
+        if (hotItemStockLedger.isHot(itemId)) {
+            hotItemStockLedger.reserve(itemId, count);
+            return itemRepository.findOne(itemId);
+        }
+        return itemRepository.removeStock(itemId, count);
     }
 }
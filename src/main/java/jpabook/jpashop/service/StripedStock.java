@@ -0,0 +1,140 @@
+package jpabook.jpashop.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 상품 하나의 재고를 여러 개의 카운터(stripe)로 나눠서 들고 있는 것.
+ * 요청마다 임의의 stripe 하나만 잠그고 차감하기 때문에 락 하나에 스레드가 몰리지 않는다. (LongAdder 와 같은 아이디어)
+ * 한 stripe 에 남은 수량이 부족하면 모든 stripe 를 잠그고 (항상 0번부터 순서대로 ⇒ 데드락 없음) 나눠 가져온다.
+ *
+ * 관리자가 재고를 줄여서 이미 예약된 수량보다 적어지면 모자란 만큼을 deficit 으로 들고 있는다.
+ * deficit 이 있는 동안 stripe 는 전부 0 이고, 반환(release)된 수량은 deficit 부터 갚는다. ⇒ 모자란 상태에서 예약이 성공하지 않는다.
+ */
+class StripedStock {
+
+    private final Stripe[] stripes;
+    private long deficit;       // 모든 stripe 락을 잡고 변경한다. (stripe 락 하나만 잡아도 읽을 수 있다.)
+
+    StripedStock(long quantity, int stripeCount) {
+        stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+        distribute(quantity);
+    }
+
+    boolean tryReserve(int quantity) {
+        int n = stripes.length;
+        int start = ThreadLocalRandom.current().nextInt(n);
+
+        // 대부분은 stripe 하나에서 끝난다.
+        for (int i = 0; i < n; i++) {
+            Stripe stripe = stripes[(start + i) % n];
+            stripe.lock();
+            try {
+                if (stripe.quantity >= quantity) {
+                    stripe.quantity -= quantity;
+                    return true;
+                }
+            } finally {
+                stripe.unlock();
+            }
+        }
+
+        // 재고가 여러 stripe 에 흩어져 있을 때 (품절 직전)
+        lockAll();
+        try {
+            if (sum() < quantity) {
+                return false;
+            }
+            long rest = quantity;
+            for (int i = 0; i < n && rest > 0; i++) {
+                Stripe stripe = stripes[(start + i) % n];
+                long take = Math.min(stripe.quantity, rest);
+                stripe.quantity -= take;
+                rest -= take;
+            }
+            return true;
+        } finally {
+            unlockAll();
+        }
+    }
+
+    void release(int quantity) {
+        Stripe stripe = stripes[ThreadLocalRandom.current().nextInt(stripes.length)];
+        stripe.lock();
+        try {
+            if (deficit == 0) {
+                stripe.quantity += quantity;
+                return;
+            }
+        } finally {
+            stripe.unlock();
+        }
+
+        lockAll();
+        try {
+            long paid = Math.min(deficit, quantity);
+            deficit -= paid;
+            stripes[0].quantity += quantity - paid;
+        } finally {
+            unlockAll();
+        }
+    }
+
+    /**
+     * 관리자 재고 수정분(delta)을 반영한다. 예약 중인 스레드가 들고 있는 인스턴스를 그대로 쓰므로 진행 중인 예약도 빠지지 않는다.
+     */
+    void adjust(long delta) {
+        lockAll();
+        try {
+            distribute(sum() - deficit + delta);
+        } finally {
+            unlockAll();
+        }
+    }
+
+    long available() {
+        lockAll();
+        try {
+            return sum() - deficit;
+        } finally {
+            unlockAll();
+        }
+    }
+
+    private void distribute(long quantity) {
+        int n = stripes.length;
+        long positive = Math.max(quantity, 0);
+        for (int i = 0; i < n; i++) {
+            stripes[i].quantity = positive / n + (i < positive % n ? 1 : 0);
+        }
+        deficit = Math.max(-quantity, 0);
+    }
+
+    private long sum() {
+        long sum = 0;
+        for (Stripe stripe : stripes) {
+            sum += stripe.quantity;
+        }
+        return sum;
+    }
+
+    private void lockAll() {
+        for (Stripe stripe : stripes) {
+            stripe.lock();
+        }
+    }
+
+    private void unlockAll() {
+        for (int i = stripes.length - 1; i >= 0; i--) {
+            stripes[i].unlock();
+        }
+    }
+
+    // stripe 마다 락 객체가 따로 있으므로 (서로 다른 객체) 같은 캐시 라인을 두고 다투는 일이 적다.
+    private static final class Stripe extends ReentrantLock {
+        private long quantity;
+    }
+}
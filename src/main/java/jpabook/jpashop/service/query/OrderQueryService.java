@@ -0,0 +1,148 @@
+package jpabook.jpashop.service.query;
+
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.repository.OrderSearchCursor;
+import jpabook.jpashop.repository.OrderSort;
+import jpabook.jpashop.repository.OrderStatelessReader;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * 주문 조회 전용 서비스 (OSIV off)
+ * spring.jpa.open-in-view: false 면 영속성 컨텍스트와 DB 커넥션이 트랜잭션이 끝날 때 같이 반납된다.
+ * ⇒ 컨트롤러나 뷰(Thymeleaf, JSON 직렬화)에서는 지연 로딩을 할 수 없으므로, 화면/API 에 필요한 DTO 를 읽기 전용 트랜잭션 안에서 전부 만들어서 반환한다.
+ * 커넥션은 쿼리하는 동안만 잡고, 렌더링/직렬화 중에는 다른 요청이 쓸 수 있다.
+ * 핵심 비즈니스 로직(OrderService)과 화면/API 에 맞춘 조회(OrderQueryService)를 분리해서 서로의 변경에 영향을 받지 않게 한다.
+ */
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class OrderQueryService {
+
+    private final OrderRepository orderRepository;
+    private final OrderQueryRepository orderQueryRepository;
+    private final OrderStatelessReader orderStatelessReader;
+
+    static final int MAX_SEARCH_LIMIT = 1000;
+    static final int SEARCH_COUNT_CAP = 10000;
+
+    // 주문 목록 화면
+    public List<OrderSummaryDto> findOrderSummaries(OrderSearch orderSearch) {
+        return orderRepository.findAll(orderSearch).stream()
+                .map(o -> new OrderSummaryDto(o))
+                .collect(Collectors.toList());
+    }
+
+    // 엔티티를 그대로 반환 (api v1) ⇒ 트랜잭션 안에서 강제 초기화해야 직렬화할 때 지연 로딩이 필요 없다.
+    public List<Order> findOrderEntities() {
+        List<Order> all = orderRepository.findAllByString(new OrderSearch());
+
+        for (Order order : all) {
+            order.getMember().getName();
+            order.getDelivery().getAddress();
+
+            List<OrderItem> orderItems = order.getOrderItems();
+            orderItems.stream().forEach(o -> o.getItem().getName());
+        }
+
+        return all;
+    }
+
+    // 지연 로딩 그대로 (쿼리가 너무 많이 실행된다.)
+    public List<OrderDto> findOrders() {
+        return toOrderDtos(orderRepository.findAllByString(new OrderSearch()));
+    }
+
+    public List<OrderDto> findOrdersWithItem() {
+        return toOrderDtos(orderRepository.findAllWithItem());
+    }
+
+    public List<OrderDto> findOrdersWithItem(int offset, int limit) {
+        return toOrderDtos(orderRepository.findAllWithItem(offset, limit));
+    }
+
+    public List<OrderDto> findOrdersWithMemberDelivery(int offset, int limit) {
+        return toOrderDtos(orderRepository.findAllWithMemberDelivery(offset, limit));
+    }
+
+    // 키셋(seek) 페이징 ⇒ 다음 커서는 마지막 DTO 의 orderId
+    public List<OrderDto> findOrdersWithMemberDelivery(Long cursor, int limit) {
+        return toOrderDtos(orderRepository.findAllWithMemberDelivery(cursor, limit));
+    }
+
+    public List<SimpleOrderDto> findSimpleOrders() {
+        return toSimpleOrderDtos(orderRepository.findAllByString(new OrderSearch()));
+    }
+
+    public List<SimpleOrderDto> findSimpleOrdersWithMemberDelivery() {
+        return toSimpleOrderDtos(orderRepository.findAllWithMemberDelivery());
+    }
+
+    public List<SimpleOrderDto> findSimpleOrdersWithMemberDelivery(Long cursor, int limit) {
+        return toSimpleOrderDtos(orderRepository.findAllWithMemberDelivery(cursor, limit));
+    }
+
+    /* 주문 검색 (조건 + 정렬 + 키셋 페이징)
+    * 페이지는 limit + 1 개를 읽어서 다음 페이지가 있는지 판단한다. ⇒ 마지막 페이지에서 빈 요청을 한 번 더 하지 않는다.
+    * 건수는 SEARCH_COUNT_CAP 까지만 센다. (넓은 조건에서 count(*) 가 결과 전체를 읽지 않도록) */
+    public OrderSearchPage<OrderSearchDto> search(OrderSearch orderSearch, String after, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT));
+        OrderSort sort = orderSearch.getSort() == null ? OrderSort.ID_DESC : orderSearch.getSort();
+        OrderSearchCursor cursor = OrderSearchCursor.decode(after, sort);
+
+        List<Order> orders = orderRepository.search(orderSearch, cursor, pageSize + 1);
+        boolean hasNext = orders.size() > pageSize;
+        if (hasNext) {
+            orders = orders.subList(0, pageSize);
+        }
+        String nextCursor = hasNext ? OrderSearchCursor.of(sort, orders.get(orders.size() - 1)).encode() : null;
+
+        long count = orderRepository.countUpTo(orderSearch, SEARCH_COUNT_CAP);
+        boolean capped = count > SEARCH_COUNT_CAP;
+
+        List<OrderSearchDto> data = orders.stream()
+                .map(o -> new OrderSearchDto(o))
+                .collect(Collectors.toList());
+        return new OrderSearchPage<>(data, nextCursor, capped ? SEARCH_COUNT_CAP : count, capped);
+    }
+
+    /* 주문 전체 (export) ⇒ StatelessSession 으로 chunk 단위로 읽어서 바로 DTO 로 넘긴다.
+    * 영속성 컨텍스트가 없으므로 트랜잭션 없이 실행한다. (NOT_SUPPORTED) */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void forEachSimpleOrder(int chunkSize, Consumer<SimpleOrderDto> consumer) {
+        orderStatelessReader.forEachWithMemberDelivery(chunkSize, o -> consumer.accept(new SimpleOrderDto(o)));
+    }
+
+    /* DTO 직접 조회 (v4, v5)
+    * 지연 로딩은 없지만 쿼리가 여러 번이라 트랜잭션 없이 호출하면 쿼리마다 커넥션을 새로 빌린다. ⇒ 읽기 전용 트랜잭션 하나로 묶는다. */
+    public List<OrderQueryDto> findOrderQueryDtos() {
+        return orderQueryRepository.findOrderQueryDtos();
+    }
+
+    public List<OrderQueryDto> findAllByDto() {
+        return orderQueryRepository.findAllByDto_optimization();
+    }
+
+    private List<OrderDto> toOrderDtos(List<Order> orders) {
+        return orders.stream()
+                .map(o -> new OrderDto(o))
+                .collect(Collectors.toList());
+    }
+
+    private List<SimpleOrderDto> toSimpleOrderDtos(List<Order> orders) {
+        return orders.stream()
+                .map(o -> new SimpleOrderDto(o))
+                .collect(Collectors.toList());
+    }
+}
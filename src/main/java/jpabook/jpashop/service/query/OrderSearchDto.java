@@ -0,0 +1,27 @@
+package jpabook.jpashop.service.query;
+
+import jpabook.jpashop.domain.DeliveryStatus;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderStatus;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class OrderSearchDto {
+    private Long orderId;
+    private String memberName;
+    private LocalDateTime orderDate;
+    private OrderStatus orderStatus;
+    private DeliveryStatus deliveryStatus;
+    private int totalPrice;
+
+    public OrderSearchDto(Order order) {
+        orderId = order.getId();
+        memberName = order.getMember().getName();       // 패치 조인
+        orderDate = order.getOrderDate();
+        orderStatus = order.getStatus();
+        deliveryStatus = order.getDelivery().getStatus();       // 패치 조인
+        totalPrice = order.getTotalPrice();     // 비정규화된 total_price 컬럼 (주문상품을 읽지 않는다.)
+    }
+}
@@ -0,0 +1,21 @@
+package jpabook.jpashop.service.query;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 주문 검색 결과 한 페이지
+ * nextCursor 는 다음 요청의 after 로 그대로 넘긴다. (없으면 마지막 페이지)
+ * approximateCount 는 정확한 건수가 아니라 상한까지만 센 값이다. countCapped 가 true 면 "approximateCount 건 이상" 이라는 뜻이다.
+ */
+@Data
+@AllArgsConstructor
+public class OrderSearchPage<T> {
+
+    private List<T> data;
+    private String nextCursor;
+    private long approximateCount;
+    private boolean countCapped;
+}
@@ -0,0 +1,38 @@
+package jpabook.jpashop.service.query;
+
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.domain.OrderStatus;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+// 주문 목록 화면(order/orderList) 한 줄 ⇒ 회원명 + 대표상품(첫 번째 주문상품)
+@Getter
+public class OrderSummaryDto {
+
+    private Long orderId;
+    private String memberName;
+    private String itemName;
+    private int orderPrice;
+    private int count;
+    private OrderStatus orderStatus;
+    private LocalDateTime orderDate;
+
+    public OrderSummaryDto(Order order) {
+        orderId = order.getId();
+        memberName = order.getMember().getName();
+        orderStatus = order.getStatus();
+        orderDate = order.getOrderDate();
+        if (!order.getOrderItems().isEmpty()) {
+            OrderItem first = order.getOrderItems().get(0);
+            itemName = first.getItem().getName();
+            orderPrice = first.getOrderPrice();
+            count = first.getCount();
+        }
+    }
+
+    public boolean isCancelable() {
+        return orderStatus == OrderStatus.ORDER;
+    }
+}
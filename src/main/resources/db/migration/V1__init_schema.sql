@@ -0,0 +1,102 @@
+-- 초기 스키마 (엔티티 매핑과 같아야 한다. 엔티티를 바꾸면 V2__... 를 추가한다. 이미 적용된 파일은 수정하지 않는다.)
+
+-- 시퀀스 (allocationSize = 50 과 같은 increment 여야 pooled id 가 겹치지 않는다.)
+create sequence member_seq start with 1 increment by 50;
+create sequence member_name_token_seq start with 1 increment by 50;
+create sequence item_seq start with 1 increment by 50;
+create sequence category_seq start with 1 increment by 50;
+create sequence delivery_seq start with 1 increment by 50;
+create sequence orders_seq start with 1 increment by 50;
+create sequence order_item_seq start with 1 increment by 50;
+
+create table member (
+    member_id bigint not null,
+    name varchar(255),
+    city varchar(255),
+    street varchar(255),
+    zipcode varchar(255),
+    primary key (member_id)
+);
+create index idx_member_name on member (name);
+
+create table member_name_token (
+    member_name_token_id bigint not null,
+    member_id bigint,
+    token varchar(12),
+    prefix boolean not null,
+    primary key (member_name_token_id)
+);
+create index idx_member_name_token_token on member_name_token (token, prefix, member_id);
+create index idx_member_name_token_member on member_name_token (member_id);
+
+-- 상품 (SINGLE_TABLE : Book(B), Album(A), Movie(M))
+create table item (
+    dtype varchar(31) not null,
+    item_id bigint not null,
+    name varchar(255),
+    price integer not null,
+    stock_quantity integer not null,
+    author varchar(255),
+    isbn varchar(255),
+    artist varchar(255),
+    etc varchar(255),
+    director varchar(255),
+    actor varchar(255),
+    primary key (item_id)
+);
+create index idx_item_dtype on item (dtype);
+
+create table category (
+    category_id bigint not null,
+    name varchar(255),
+    parent_id bigint,
+    primary key (category_id)
+);
+
+create table category_item (
+    category_id bigint not null,
+    item_id bigint not null,
+    primary key (category_id, item_id)
+);
+create index idx_category_item_item_category on category_item (item_id, category_id);
+
+create table delivery (
+    delivery_id bigint not null,
+    city varchar(255),
+    street varchar(255),
+    zipcode varchar(255),
+    status varchar(255),
+    primary key (delivery_id)
+);
+
+create table orders (
+    order_id bigint not null,
+    member_id bigint,
+    delivery_id bigint unique,
+    order_date timestamp(6),
+    status varchar(255),
+    primary key (order_id)
+);
+create index idx_orders_member on orders (member_id);
+create index idx_orders_status on orders (status, order_id);
+
+create table order_item (
+    order_item_id bigint not null,
+    order_id bigint,
+    item_id bigint,
+    order_price integer not null,
+    count integer not null,
+    stock_reconciled boolean not null,
+    primary key (order_item_id)
+);
+create index idx_order_item_order on order_item (order_id);
+create index idx_order_item_item_reconciled on order_item (item_id, stock_reconciled);
+
+alter table member_name_token add constraint fk_member_name_token_member foreign key (member_id) references member;
+alter table category add constraint fk_category_parent foreign key (parent_id) references category;
+alter table category_item add constraint fk_category_item_category foreign key (category_id) references category;
+alter table category_item add constraint fk_category_item_item foreign key (item_id) references item;
+alter table orders add constraint fk_orders_member foreign key (member_id) references member;
+alter table orders add constraint fk_orders_delivery foreign key (delivery_id) references delivery;
+alter table order_item add constraint fk_order_item_order foreign key (order_id) references orders;
+alter table order_item add constraint fk_order_item_item foreign key (item_id) references item;
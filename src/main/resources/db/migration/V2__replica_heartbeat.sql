@@ -0,0 +1,7 @@
+-- 복제 지연 측정용 heartbeat (primary 에 주기적으로 쓰고, replica 에서 읽어서 차이를 본다.)
+create table replica_heartbeat (
+    id integer not null,
+    beat_millis bigint not null,
+    primary key (id)
+);
+insert into replica_heartbeat (id, beat_millis) values (1, 0);
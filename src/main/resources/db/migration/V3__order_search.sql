@@ -0,0 +1,14 @@
+-- 주문 검색 (기간, 배송 상태, 상품, 주문 금액, 정렬 + 키셋 페이징)
+
+-- 주문 금액 (주문상품 합계) 을 주문에 저장 ⇒ 금액 조건/정렬을 order_item 조인 없이 인덱스로
+alter table orders add column total_price integer default 0 not null;
+update orders o set total_price = (
+    select coalesce(sum(oi.order_price * oi.count), 0) from order_item oi where oi.order_id = o.order_id
+);
+
+-- 정렬 키 + order_id (키셋 커서) 를 같이 넣어서 인덱스 순서대로 읽다가 limit 에서 멈출 수 있게 한다.
+create index idx_orders_status_date on orders (status, order_date, order_id);
+create index idx_orders_date on orders (order_date, order_id);
+create index idx_orders_total on orders (total_price, order_id);
+create index idx_order_item_item_order on order_item (item_id, order_id);
+create index idx_delivery_status on delivery (status, delivery_id);
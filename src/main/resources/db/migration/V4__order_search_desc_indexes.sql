@@ -0,0 +1,6 @@
+-- 주문 검색 내림차순 정렬 (최근 주문 순, 주문일 최신 순, 금액 높은 순)
+-- H2 는 인덱스를 거꾸로 읽지 못해서 오름차순 인덱스로는 order by ... desc 를 처리하지 못한다. (전체 스캔 + 정렬)
+-- ⇒ 내림차순 정렬마다 같은 방향의 인덱스를 둔다. 첫 페이지(조건 없음)도 인덱스 순서대로 읽다가 limit 에서 멈춘다.
+create index idx_orders_id_desc on orders (order_id desc);
+create index idx_orders_date_desc on orders (order_date desc, order_id desc);
+create index idx_orders_total_desc on orders (total_price desc, order_id desc);
@@ -0,0 +1,4 @@
+-- 주문 시간은 키셋 커서(주문일 정렬)의 키 ⇒ null 이면 커서를 만들 수 없고 정렬 위치도 DB 마다 다르다.
+-- 주문은 Order.createOrder 에서만 만들어지고 항상 주문 시간이 들어간다. 예전 데이터에 빠진 것이 있으면 가장 오래된 주문으로 본다.
+update orders set order_date = timestamp '1970-01-01 00:00:00' where order_date is null;
+alter table orders alter column order_date set not null;
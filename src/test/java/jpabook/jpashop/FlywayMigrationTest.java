@@ -0,0 +1,62 @@
+package jpabook.jpashop;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.service.CategoryService;
+import jpabook.jpashop.service.ItemService;
+import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Hibernate 가 스키마를 만들지 않고(ddl-auto none) Flyway 마이그레이션만으로 만든 스키마에서 엔티티가 동작하는지 확인
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:flyway;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=none"
+})
+@Transactional
+class FlywayMigrationTest {
+
+    @Autowired MemberService memberService;
+    @Autowired ItemService itemService;
+    @Autowired OrderService orderService;
+    @Autowired OrderRepository orderRepository;
+
+    @Test
+    public void 마이그레이션_스키마로_주문() throws Exception {
+        // given
+        Member member = new Member();
+        member.setName("flyway회원");
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        Long memberId = memberService.join(member);
+
+        Book book = new Book();
+        book.setName("flyway JPA");
+        book.setPrice(10000);
+        book.setStockQuantity(10);
+        itemService.saveItem(book);
+
+        // when
+        Long orderId = orderService.order(memberId, book.getId(), 3);
+        orderService.cancelOrder(orderId);
+
+        // then
+        OrderSearch orderSearch = new OrderSearch();
+        orderSearch.setMemberName("flyway");
+        List<Order> orders = orderRepository.findAll(orderSearch);
+        assertEquals(1, orders.size());
+        assertEquals(OrderStatus.CANCEL, orders.get(0).getStatus());
+        assertEquals(10, itemService.findOne(book.getId()).getStockQuantity());
+    }
+}
@@ -0,0 +1,75 @@
+package jpabook.jpashop.api;
+
+import jakarta.persistence.EntityManager;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// 요청 값 검증 ⇒ 응답 코드 (ApiExceptionHandler)
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class OrderApiControllerTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired EntityManager em;
+    @Autowired OrderService orderService;
+    @Autowired OrderRepository orderRepository;
+
+    @Test
+    public void 검색조건_없는_대량취소는_400() throws Exception {
+        // given
+        Member member = new Member();
+        member.setName("대량취소회원");
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        em.persist(member);
+        Book book = new Book();
+        book.setName("서울 JPA");
+        book.setPrice(10000);
+        book.setStockQuantity(10);
+        em.persist(book);
+        Long orderId = orderService.order(member.getId(), book.getId(), 2);
+
+        // when (빈 조건, 필드 이름 오타 ⇒ 조건 없음)
+        mockMvc.perform(post("/api/v1/orders/cancel-by-search")
+                        .contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/v1/orders/cancel-by-search")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"memberNmae\": \"대량취소회원\"}"))
+                .andExpect(status().isBadRequest());
+        em.flush();
+        em.clear();
+
+        // then (아무 주문도 취소되지 않는다.)
+        assertEquals(OrderStatus.ORDER, orderRepository.findOne(orderId).getStatus());
+        assertEquals(8, em.find(Book.class, book.getId()).getStockQuantity());
+    }
+
+    @Test
+    public void 잘못된_커서는_400() throws Exception {
+        // OrderSearchCursor.decode (검색), CursorResult.decode (키셋 목록)
+        mockMvc.perform(get("/api/v1/orders/search").param("after", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/orders/search").param("sort", "ORDER_DATE_DESC").param("after", "SURfREVTQ3x8MQ"))    // ID_DESC 커서
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v3.1/orders/keyset").param("after", "not-a-cursor"))      // CursorResult.decode
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v5.1/orders").param("after", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,59 @@
+package jpabook.jpashop.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionLimitFilterTest {
+
+    @Test
+    public void 커넥션수_초과요청_대기후_503() throws Exception {
+        // given (permit 1개, 첫 번째 요청이 처리 중)
+        ConnectionLimitFilter filter = new ConnectionLimitFilter(1, Duration.ofMillis(100));
+        CountDownLatch inChain = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<MockHttpServletResponse> first = executor.submit(() -> {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(request(), response, (req, res) -> {
+                inChain.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            return response;
+        });
+        assertTrue(inChain.await(5, TimeUnit.SECONDS));
+
+        // when
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        filter.doFilter(request(), second, new MockFilterChain());
+
+        // then
+        assertEquals(503, second.getStatus());
+        release.countDown();
+        assertEquals(200, first.get(5, TimeUnit.SECONDS).getStatus());
+
+        MockHttpServletResponse third = new MockHttpServletResponse();
+        filter.doFilter(request(), third, new MockFilterChain());
+        assertEquals(200, third.getStatus(), "처리가 끝나면 permit 이 반납된다.");
+        executor.shutdown();
+    }
+
+    private MockHttpServletRequest request() {
+        return new MockHttpServletRequest("GET", "/api/v4/simple-orders");
+    }
+}
@@ -0,0 +1,169 @@
+package jpabook.jpashop.datasource;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * primary 에만 쓴 값(복제 전)이 보이면 primary, 안 보이면 replica 에서 읽은 것이다.
+ * 복제와 heartbeat 는 스케줄러 대신 테스트에서 직접 실행한다. (interval 을 길게)
+ */
+@SpringBootTest(properties = {
+        "jpashop.replica.simulator.interval=1h",
+        "jpashop.replica.heartbeat-interval=1h",
+        "jpashop.replica.max-lag=300ms"
+})
+@ActiveProfiles("replica")
+class ReplicaRoutingTest {
+
+    @Autowired DataSource dataSource;
+    @Autowired @Qualifier("primaryDataSource") DataSource primaryDataSource;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired H2ReplicationSimulator replicationSimulator;
+    @Autowired ReplicaLagMonitor replicaLagMonitor;
+    @Autowired ReadYourWrites readYourWrites;
+
+    JdbcTemplate primary;
+    JdbcTemplate routed;
+
+    @BeforeEach
+    void setUp() {
+        primary = new JdbcTemplate(primaryDataSource);
+        routed = new JdbcTemplate(dataSource);
+        primary.update("merge into member (member_id, name) key (member_id) values (-1, 'before')");
+        replicaLagMonitor.check();
+        replicationSimulator.replicate();
+        replicaLagMonitor.check();
+        assertTrue(replicaLagMonitor.isReplicaUsable());
+
+        primary.update("update member set name = 'after' where member_id = -1");     // 아직 복제되지 않음
+    }
+
+    @AfterEach
+    void tearDown() {
+        readYourWrites.clear();
+        primary.update("delete from member where member_id = -1");
+    }
+
+    @Test
+    public void 읽기전용_트랜잭션은_replica() throws Exception {
+        assertEquals("before", readName(true));
+    }
+
+    @Test
+    public void 쓰기_트랜잭션은_primary() throws Exception {
+        assertEquals("after", readName(false));
+    }
+
+    @Test
+    public void 쓰고나서_읽기는_primary() throws Exception {
+        // when (쓰기 트랜잭션 커밋 ⇒ read-your-writes 기간)
+        TransactionTemplate write = new TransactionTemplate(transactionManager);
+        write.executeWithoutResult(status -> readYourWrites.markWritten());
+
+        // then
+        assertTrue(readYourWrites.isPinned());
+        assertEquals("after", readName(true));
+    }
+
+    @Test
+    public void 서명된_쿠키만_고정() throws Exception {
+        // given (window 200ms, 서버가 내려준 쿠키)
+        ReadYourWrites shortWindow = new ReadYourWrites(true, Duration.ofMillis(200), "test-secret");
+        String issued = issueCookie(shortWindow);
+        String until = issued.substring(0, issued.indexOf('.'));
+        String signature = issued.substring(issued.indexOf('.') + 1);
+
+        // when, then
+        assertEquals(List.of(true, false), pinnedDuringRequest(shortWindow, issued), "서명된 쿠키 ⇒ window 동안만");
+        assertEquals(List.of(false, false), pinnedDuringRequest(shortWindow, Long.toString(Long.MAX_VALUE)), "서명 없는 쿠키");
+        assertEquals(List.of(false, false), pinnedDuringRequest(shortWindow, Long.MAX_VALUE + "." + signature), "시각을 바꾼 쿠키");
+        assertEquals(List.of(false, false),
+                pinnedDuringRequest(new ReadYourWrites(true, Duration.ofMillis(200), "other-secret"), until + "." + signature), "다른 키로 서명된 쿠키");
+    }
+
+    @Test
+    public void 쓰기_롤백시_고정안함() throws Exception {
+        TransactionTemplate write = new TransactionTemplate(transactionManager);
+        write.executeWithoutResult(status -> {
+            readYourWrites.markWritten();
+            status.setRollbackOnly();
+        });
+
+        assertFalse(readYourWrites.isPinned());
+        assertEquals("before", readName(true));
+    }
+
+    @Test
+    public void 복제지연_초과시_primary() throws Exception {
+        // when (max-lag 이 지나도록 복제가 안 됨)
+        Thread.sleep(400);
+        replicaLagMonitor.check();
+
+        // then
+        assertFalse(replicaLagMonitor.isReplicaUsable());
+        assertEquals("after", readName(true));
+
+        // 복제되면 다시 replica
+        replicationSimulator.replicate();
+        replicaLagMonitor.check();
+        assertTrue(replicaLagMonitor.isReplicaUsable());
+    }
+
+    // markWritten 이 응답에 내려준 쿠키 값
+    private String issueCookie(ReadYourWrites readYourWrites) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest(), response));
+        try {
+            readYourWrites.markWritten();
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+            readYourWrites.clear();
+        }
+        return response.getCookie(ReadYourWrites.COOKIE_NAME).getValue();
+    }
+
+    // 필터를 거친 요청 안에서 고정 여부 (요청 시작 직후, window 가 지난 뒤)
+    private List<Boolean> pinnedDuringRequest(ReadYourWrites readYourWrites, String cookieValue) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/orders");
+        request.setCookies(new Cookie(ReadYourWrites.COOKIE_NAME, cookieValue));
+
+        List<Boolean> pinned = new ArrayList<>();
+        new ReadYourWritesFilter(readYourWrites).doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            pinned.add(readYourWrites.isPinned());
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            pinned.add(readYourWrites.isPinned());
+        });
+        return pinned;
+    }
+
+    private String readName(boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(readOnly);
+        return template.execute(status ->
+                routed.queryForObject("select name from member where member_id = -1", String.class));
+    }
+}
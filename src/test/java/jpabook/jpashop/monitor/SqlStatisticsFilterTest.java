@@ -0,0 +1,49 @@
+package jpabook.jpashop.monitor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jpabook.jpashop.exception.NPlusOneQueryException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+// 1+N 이 생기면 테스트가 실패하도록 threshold 를 1로 낮추고 fail 모드로 실행한다.
+@SpringBootTest(properties = {
+        "jpashop.sql-monitor.n-plus-one-threshold=1",
+        "jpashop.sql-monitor.fail-on-n-plus-one-in-tests=true"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("local")        // InitDb 샘플 주문 2건이 있어야 지연 로딩 1+N 이 생긴다.
+class SqlStatisticsFilterTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired MeterRegistry meterRegistry;
+
+    @Test
+    public void 요청당_SQL_수_헤더() throws Exception {
+        // when (DTO 직접 조회 ⇒ 쿼리 1번)
+        MvcResult result = mockMvc.perform(get("/api/v4/simple-orders")).andReturn();
+
+        // then
+        assertEquals(200, result.getResponse().getStatus());
+        assertEquals("1", result.getResponse().getHeader("X-SQL-Count"));
+        assertNotNull(result.getResponse().getHeader("X-SQL-Time-Ms"));
+        assertNotNull(result.getResponse().getHeader("X-SQL-Rows"));
+    }
+
+    @Test
+    public void 지연로딩_1_N_감지() throws Exception {
+        // when (주문마다 member, delivery 를 지연 로딩 ⇒ 1 + N)
+        // then
+        assertThrows(NPlusOneQueryException.class, () -> mockMvc.perform(get("/api/v2/simple-orders")));
+        // 메트릭 uri 태그는 요청 URI 가 아니라 매핑 패턴 (다른 jpashop.sql.* 메트릭과 같은 값)
+        assertNotNull(meterRegistry.find("jpashop.sql.n_plus_one").tag("uri", "/api/v2/simple-orders").counter());
+        assertNull(meterRegistry.find("jpashop.sql.n_plus_one").tag("uri", "UNKNOWN").counter());
+    }
+}
@@ -0,0 +1,147 @@
+package jpabook.jpashop.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.service.ItemService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 상품 2차 캐시 + 재고 native update
+ * 테스트 설정(src/test/resources/application.yml)에는 2차 캐시가 없다. ⇒ main 설정과 같은 JCache(Caffeine) region 을 여기서 켠다.
+ * 캐시는 커밋된 값만 다루므로 @Transactional 을 붙이지 않고, 만든 상품은 @AfterEach 에서 지운다.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=true",
+        "spring.jpa.properties.hibernate.cache.region.factory_class=jcache",
+        "spring.jpa.properties.hibernate.javax.cache.provider=com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider",
+        "spring.jpa.properties.hibernate.javax.cache.missing_cache_strategy=create",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class ItemSecondLevelCacheTest {
+
+    @Autowired ItemRepository itemRepository;
+    @Autowired ItemService itemService;
+    @Autowired EntityManagerFactory emf;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    private final List<Long> itemIds = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        for (Long itemId : itemIds) {
+            jdbcTemplate.update("delete from item where item_id = ?", itemId);
+            emf.getCache().evict(Item.class, itemId);
+        }
+    }
+
+    @Test
+    public void 재고_변경은_캐시에서_이전값으로_읽히지_않음() throws Exception {
+        // given (캐시에 올라간 상품)
+        Long itemId = createBook(10);
+        assertEquals(10, stockQuantity(itemId));
+        assertTrue(emf.getCache().contains(Item.class, itemId));
+
+        // when
+        tx().executeWithoutResult(status -> itemRepository.decreaseStock(itemId, 3));
+
+        // then
+        assertFalse(emf.getCache().contains(Item.class, itemId));
+        assertEquals(7, stockQuantity(itemId));
+        assertEquals(7, jdbcTemplate.queryForObject("select stock_quantity from item where item_id = ?", Integer.class, itemId));
+    }
+
+    @Test
+    public void 재고_변경은_다른_상품_캐시를_비우지_않음() throws Exception {
+        // given
+        Long itemId = createBook(10);
+        Long otherId = createBook(10);
+        stockQuantity(itemId);
+        stockQuantity(otherId);
+
+        // when (빈 query space ⇒ item region 전체가 아니라 바뀐 상품만 evict)
+        tx().executeWithoutResult(status -> itemRepository.increaseStock(itemId, 5));
+
+        // then
+        assertFalse(emf.getCache().contains(Item.class, itemId));
+        assertTrue(emf.getCache().contains(Item.class, otherId));
+
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        long hitBefore = statistics.getSecondLevelCacheHitCount();
+        assertEquals(10, stockQuantity(otherId));
+        assertTrue(statistics.getSecondLevelCacheHitCount() > hitBefore, "다른 상품은 캐시에서 읽는다.");
+        assertEquals(15, stockQuantity(itemId));
+    }
+
+    @Test
+    public void 커밋전에_다시_캐시된_이전값은_커밋후에_지워짐() throws Exception {
+        // given
+        Long itemId = createBook(10);
+        stockQuantity(itemId);
+
+        // when (재고 update 후 커밋 전에 다른 트랜잭션이 상품을 읽어서 이전 값(10)을 다시 캐시에 올린다.)
+        TransactionTemplate other = tx();
+        other.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        tx().executeWithoutResult(status -> {
+            itemRepository.decreaseStock(itemId, 4);
+            assertEquals(10, other.execute(s -> itemRepository.findOne(itemId).getStockQuantity()));
+            assertTrue(emf.getCache().contains(Item.class, itemId));
+        });
+
+        // then (커밋 후 한 번 더 evict ⇒ 이전 값이 남지 않는다.)
+        assertFalse(emf.getCache().contains(Item.class, itemId));
+        assertEquals(6, stockQuantity(itemId));
+    }
+
+    @Test
+    public void 쿼리캐시_목록도_바뀐_재고() throws Exception {
+        // given (쿼리 캐시는 id 목록만 저장하고 엔티티는 item region 에서 꺼낸다.)
+        Long itemId = createBook(10);
+        tx().executeWithoutResult(status -> itemRepository.findAll());
+
+        // when
+        tx().executeWithoutResult(status -> itemRepository.decreaseStock(itemId, 2));
+
+        // then
+        Integer stock = tx().execute(status -> itemRepository.findAll().stream()
+                .filter(item -> item.getId().equals(itemId))
+                .findFirst().orElseThrow()
+                .getStockQuantity());
+        assertEquals(8, stock);
+    }
+
+    private Long createBook(int stockQuantity) {
+        Book book = new Book();
+        book.setName("캐시 JPA");
+        book.setPrice(10000);
+        book.setStockQuantity(stockQuantity);
+        itemService.saveItem(book);
+        itemIds.add(book.getId());
+        return book.getId();
+    }
+
+    // 새 트랜잭션(새 영속성 컨텍스트)에서 읽는다. ⇒ 1차 캐시가 아니라 2차 캐시 또는 DB
+    private int stockQuantity(Long itemId) {
+        return tx().execute(status -> itemRepository.findOne(itemId).getStockQuantity());
+    }
+
+    private TransactionTemplate tx() {
+        return new TransactionTemplate(transactionManager);
+    }
+}
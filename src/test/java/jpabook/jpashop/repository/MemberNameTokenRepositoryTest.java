@@ -0,0 +1,102 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.service.ItemService;
+import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class MemberNameTokenRepositoryTest {
+
+    @Autowired MemberService memberService;
+    @Autowired ItemService itemService;
+    @Autowired OrderService orderService;
+    @Autowired OrderRepository orderRepository;
+    @Autowired MemberNameTokenRepository memberNameTokenRepository;
+
+    @Test
+    public void 이름_포함_앞글자_검색() throws Exception {
+        // given
+        Long kimYounghan = join("김영한");
+        Long kimYounghee = join("김영희");
+        Long leeYoung = join("이영");
+        Long smith = join("John Smithson");
+
+        // when, then
+        assertEquals(List.of(kimYounghan, kimYounghee, leeYoung), memberNameTokenRepository.findMemberIdsByNameContaining("영"));
+        assertEquals(List.of(kimYounghan, kimYounghee), memberNameTokenRepository.findMemberIdsByNamePrefix("김영"));
+        assertEquals(List.of(smith), memberNameTokenRepository.findMemberIdsByNameContaining("smith"));
+        assertEquals(List.of(smith), memberNameTokenRepository.findMemberIdsByNamePrefix("JOHN S"), "공백, 대소문자 무시");
+        assertTrue(memberNameTokenRepository.findMemberIdsByNamePrefix("smith").isEmpty());
+        assertTrue(memberNameTokenRepository.findMemberIdsByNameContaining("smithsonx").isEmpty());
+    }
+
+    @Test
+    public void 이름변경_토큰갱신() throws Exception {
+        // given
+        Long memberId = join("홍길동");
+
+        // when
+        memberService.update(memberId, "홍길순");
+
+        // then
+        assertTrue(memberNameTokenRepository.findMemberIdsByNameContaining("길동").isEmpty());
+        assertEquals(List.of(memberId), memberNameTokenRepository.findMemberIdsByNameContaining("길순"));
+    }
+
+    @Test
+    public void 회원이름으로_주문검색() throws Exception {
+        // given
+        Long memberId = join("주문검색회원");
+        Long otherId = join("다른회원");
+        Long orderId = order(memberId);
+        order(otherId);
+
+        OrderSearch orderSearch = new OrderSearch();
+        orderSearch.setMemberName("검색회");
+
+        // when
+        List<Long> byQuerydsl = ids(orderRepository.findAll(orderSearch));
+        List<Long> byCriteria = ids(orderRepository.findAllByCriteria(orderSearch));
+        List<Long> byString = ids(orderRepository.findAllByString(orderSearch));
+
+        // then
+        assertEquals(List.of(orderId), byQuerydsl);
+        assertEquals(List.of(orderId), byCriteria);
+        assertEquals(List.of(orderId), byString);
+        assertEquals(List.of(orderId), orderRepository.findIds(orderSearch));
+    }
+
+    private List<Long> ids(List<Order> orders) {
+        return orders.stream().map(Order::getId).collect(Collectors.toList());
+    }
+
+    private Long join(String name) {
+        Member member = new Member();
+        member.setName(name);
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        return memberService.join(member);
+    }
+
+    private Long order(Long memberId) {
+        Book book = new Book();
+        book.setName("검색 JPA");
+        book.setPrice(10000);
+        book.setStockQuantity(10);
+        itemService.saveItem(book);
+        return orderService.order(memberId, book.getId(), 1);
+    }
+}
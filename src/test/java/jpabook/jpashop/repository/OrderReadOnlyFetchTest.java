@@ -0,0 +1,133 @@
+package jpabook.jpashop.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.service.ItemService;
+import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.service.OrderService;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * StatelessSession 은 별도 커넥션을 쓰므로 커밋된 데이터만 보인다. ⇒ @Transactional 을 붙이지 않고, 만든 데이터는 @AfterEach 에서 지운다.
+ * 조회는 이 테스트가 만든 주문 id 범위만 읽는다. (테이블 전체를 읽지 않는다.)
+ */
+@SpringBootTest
+class OrderReadOnlyFetchTest {
+
+    @Autowired EntityManager em;
+    @Autowired EntityManagerFactory emf;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired OrderRepository orderRepository;
+    @Autowired OrderStatelessReader orderStatelessReader;
+    @Autowired OrderService orderService;
+    @Autowired MemberService memberService;
+    @Autowired ItemService itemService;
+
+    private final List<Long> orderIds = new ArrayList<>();
+    private final List<Long> memberIds = new ArrayList<>();
+    private final List<Long> itemIds = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        for (Long orderId : orderIds) {
+            Long deliveryId = jdbcTemplate.queryForObject("select delivery_id from orders where order_id = ?", Long.class, orderId);
+            jdbcTemplate.update("delete from order_item where order_id = ?", orderId);
+            jdbcTemplate.update("delete from orders where order_id = ?", orderId);
+            jdbcTemplate.update("delete from delivery where delivery_id = ?", deliveryId);
+            emf.getCache().evict(Order.class, orderId);
+        }
+        for (Long itemId : itemIds) {
+            jdbcTemplate.update("delete from item where item_id = ?", itemId);
+            emf.getCache().evict(Item.class, itemId);
+        }
+        for (Long memberId : memberIds) {
+            jdbcTemplate.update("delete from member_name_token where member_id = ?", memberId);
+            jdbcTemplate.update("delete from member where member_id = ?", memberId);
+            emf.getCache().evict(Member.class, memberId);
+        }
+    }
+
+    @Test
+    public void 읽기전용_힌트_변경감지_제외() throws Exception {
+        // given
+        Long orderId = createOrder();
+
+        // when (쓰기 트랜잭션 안에서 목록 조회 후 엔티티를 바꿔도) ⇒ 키셋 조회로 방금 만든 주문 한 건만 읽는다.
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            List<Order> orders = orderRepository.findAllWithMemberDelivery(orderId + 1, 1);
+            assertEquals(1, orders.size());
+            Order order = orders.get(0);
+            assertEquals(orderId, order.getId());
+
+            assertTrue(em.unwrap(Session.class).isReadOnly(order));
+            order.setStatus(OrderStatus.CANCEL);
+        });
+
+        // then (flush 되지 않는다.)
+        OrderStatus status = new TransactionTemplate(transactionManager).execute(s -> orderRepository.findOne(orderId).getStatus());
+        assertEquals(OrderStatus.ORDER, status);
+    }
+
+    @Test
+    public void StatelessSession_chunk_조회() throws Exception {
+        // given
+        Long first = createOrder();
+        Long second = createOrder();
+        Long third = createOrder();
+
+        // when (first 바로 앞부터, chunk 2개씩 ⇒ 3건이면 chunk 경계를 한 번 넘는다.)
+        List<Long> readIds = new ArrayList<>();
+        List<String> memberNames = new ArrayList<>();
+        orderStatelessReader.forEachWithMemberDelivery(first - 1, 2, o -> {
+            if (o.getId() > third) {
+                return;     // 다른 테스트가 만든 주문 (이 테스트 범위 밖)
+            }
+            readIds.add(o.getId());
+            memberNames.add(o.getMember().getName());       // 패치 조인으로 같이 읽었으므로 지연 로딩이 필요 없다.
+            assertNotNull(o.getDelivery().getAddress());
+        });
+
+        // then
+        assertEquals(List.of(first, second, third), readIds, "order_id 순서, chunk 경계에서 중복/누락 없음");
+        assertFalse(memberNames.contains(null));
+    }
+
+    private Long createOrder() {
+        Member member = new Member();
+        member.setName("읽기전용-" + UUID.randomUUID());
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        Long memberId = memberService.join(member);
+        memberIds.add(memberId);
+
+        Book book = new Book();
+        book.setName("읽기전용 JPA");
+        book.setPrice(10000);
+        book.setStockQuantity(10);
+        itemService.saveItem(book);
+        itemIds.add(book.getId());
+
+        Long orderId = orderService.order(memberId, book.getId(), 1);
+        orderIds.add(orderId);
+        return orderId;
+    }
+}
@@ -0,0 +1,169 @@
+package jpabook.jpashop.repository;
+
+import jakarta.persistence.EntityManager;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.DeliveryStatus;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.exception.InvalidRequestException;
+import jpabook.jpashop.service.ItemService;
+import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class OrderSearchPagingTest {
+
+    @Autowired OrderRepository orderRepository;
+    @Autowired OrderService orderService;
+    @Autowired MemberService memberService;
+    @Autowired ItemService itemService;
+    @Autowired EntityManager em;
+
+    @Test
+    public void 복합조건_검색() throws Exception {
+        // given
+        Long memberId = join("복합검색회원");
+        Long bookId = book();
+        Long otherBookId = book();
+        Long small = orderService.order(memberId, bookId, 1);           // 10000
+        Long large = orderService.order(memberId, bookId, 5);           // 50000
+        Long other = orderService.order(memberId, otherBookId, 3);      // 30000
+        orderService.cancelOrder(other);
+        orderRepository.findOne(large).getDelivery().setStatus(DeliveryStatus.COMP);     // 배송 완료
+        em.flush();
+
+        // when
+        OrderSearch byItem = search("복합검색");
+        byItem.setItemId(bookId);
+
+        OrderSearch byPrice = search("복합검색");
+        byPrice.setMinTotalPrice(20000);
+        byPrice.setMaxTotalPrice(40000);
+
+        OrderSearch byStatus = search("복합검색");
+        byStatus.setOrderStatus(OrderStatus.ORDER);
+
+        OrderSearch delivered = search("복합검색");
+        delivered.setDeliveryStatus(DeliveryStatus.COMP);
+
+        // then
+        assertEquals(List.of(large, small), ids(orderRepository.search(byItem, null, 10)), "상품이 포함된 주문, id 내림차순");
+        assertEquals(List.of(other), ids(orderRepository.search(byPrice, null, 10)));
+        assertEquals(List.of(large, small), ids(orderRepository.search(byStatus, null, 10)));
+        assertEquals(List.of(large), ids(orderRepository.search(delivered, null, 10)));
+        assertEquals(2, orderRepository.countUpTo(byItem, 10));
+        assertEquals(2, orderRepository.findIds(byItem).size(), "대량 취소 경로도 같은 조건");
+    }
+
+    @Test
+    public void 정렬별_키셋_페이징_중복누락_없음() throws Exception {
+        // given (주문 일시가 같은 주문이 생길 수 있다. ⇒ order_id 로 순서를 확정해야 한다.)
+        Long memberId = join("키셋검색회원");
+        Long bookId = book();
+        List<Long> orderIds = new ArrayList<>();
+        for (int count = 1; count <= 7; count++) {
+            orderIds.add(orderService.order(memberId, bookId, count % 3 + 1));      // 금액이 같은 주문도 섞는다.
+        }
+        em.flush();
+        em.clear();     // 커서 키는 DB 에 저장된 값(주문 일시 정밀도)으로 만들어야 한다.
+
+        for (OrderSort sort : OrderSort.values()) {
+            OrderSearch orderSearch = search("키셋검색");
+            orderSearch.setSort(sort);
+
+            // when (한 번에 읽은 결과 vs 3건씩 커서로 읽은 결과)
+            List<Order> all = orderRepository.search(orderSearch, null, 100);
+            List<Order> paged = new ArrayList<>();
+            OrderSearchCursor cursor = null;
+            while (true) {
+                List<Order> page = orderRepository.search(orderSearch, cursor, 3);
+                paged.addAll(page);
+                if (page.size() < 3) {
+                    break;
+                }
+                cursor = OrderSearchCursor.decode(OrderSearchCursor.of(sort, page.get(page.size() - 1)).encode(), sort);
+            }
+
+            // then
+            assertEquals(orderIds.size(), all.size(), sort.name());
+            assertEquals(ids(all), ids(paged), sort.name());
+        }
+    }
+
+    @Test
+    public void 다른_정렬의_커서는_거부() throws Exception {
+        // given
+        Long orderId = orderService.order(join("커서검색회원"), book(), 2);
+        Order order = orderRepository.findOne(orderId);
+        String cursor = OrderSearchCursor.of(OrderSort.TOTAL_PRICE_DESC, order).encode();
+
+        // when
+        OrderSearchCursor decoded = OrderSearchCursor.decode(cursor, OrderSort.TOTAL_PRICE_DESC);
+
+        // then
+        assertEquals(orderId, decoded.getOrderId());
+        assertEquals(20000, decoded.getTotalPrice());
+        assertThrows(InvalidRequestException.class, () -> OrderSearchCursor.decode(cursor, OrderSort.ORDER_DATE_DESC));
+        assertThrows(InvalidRequestException.class, () -> OrderSearchCursor.decode("not-a-cursor", OrderSort.ID_DESC));
+    }
+
+    @Test
+    public void 주문시간_없는_주문은_커서를_만들지_않음() throws Exception {
+        Long orderId = orderService.order(join("커서검색회원"), book(), 1);
+        Order order = orderRepository.findOne(orderId);
+        em.detach(order);
+        order.setOrderDate(null);
+
+        assertThrows(IllegalArgumentException.class, () -> OrderSearchCursor.of(OrderSort.ORDER_DATE_DESC, order));
+        assertEquals(orderId, OrderSearchCursor.of(OrderSort.ID_DESC, order).getOrderId());
+    }
+
+    @Test
+    public void 네임드쿼리는_추가_조건을_거부() throws Exception {
+        OrderSearch orderSearch = search("복합검색");
+        orderSearch.setMinTotalPrice(20000);
+
+        assertThrows(IllegalArgumentException.class, () -> orderRepository.findAllByString(orderSearch));
+        assertThrows(IllegalArgumentException.class, () -> orderRepository.findAllByCriteria(orderSearch));
+        assertDoesNotThrow(() -> orderRepository.findAll(orderSearch));
+    }
+
+    private OrderSearch search(String memberName) {
+        OrderSearch orderSearch = new OrderSearch();
+        orderSearch.setMemberName(memberName);
+        return orderSearch;
+    }
+
+    private List<Long> ids(List<Order> orders) {
+        return orders.stream().map(Order::getId).collect(Collectors.toList());
+    }
+
+    private Long join(String name) {
+        Member member = new Member();
+        member.setName(name);
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        return memberService.join(member);
+    }
+
+    private Long book() {
+        Book book = new Book();
+        book.setName("검색 JPA");
+        book.setPrice(10000);
+        book.setStockQuantity(100);
+        itemService.saveItem(book);
+        return book.getId();
+    }
+}
@@ -0,0 +1,148 @@
+package jpabook.jpashop.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.service.ItemService;
+import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.service.OrderService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// 테스트 설정(src/test/resources/application.yml)에는 통계가 꺼져 있다. ⇒ plan 캐시 hit/miss 를 세도록 켠다.
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class OrderSearchQueryTest {
+
+    @Autowired OrderRepository orderRepository;
+    @Autowired OrderService orderService;
+    @Autowired MemberService memberService;
+    @Autowired ItemService itemService;
+    @Autowired EntityManagerFactory emf;
+
+    @Test
+    public void 조건조합별_세가지_방식_결과동일() throws Exception {
+        // given
+        Long orderId = order(join("플랜캐시회원"));
+        Long canceledId = order(join("플랜캐시취소"));
+        orderService.cancelOrder(canceledId);
+
+        // 회원 이름 조건이 있는 조합만 비교 (조건이 없으면 다른 테스트가 커밋한 주문까지 1000건 limit 에 걸려서 순서가 달라질 수 있다.)
+        for (OrderSearch orderSearch : searches().subList(2, 4)) {
+            // when
+            List<Long> byString = ids(orderRepository.findAllByString(orderSearch));
+            List<Long> byCriteria = ids(orderRepository.findAllByCriteria(orderSearch));
+            List<Long> byQuerydsl = ids(orderRepository.findAll(orderSearch));
+
+            // then
+            assertEquals(byQuerydsl, byCriteria);
+            assertEquals(byQuerydsl, byString);
+        }
+
+        OrderSearch byNameAndStatus = new OrderSearch();
+        byNameAndStatus.setMemberName("플랜캐시");
+        byNameAndStatus.setOrderStatus(OrderStatus.ORDER);
+        assertEquals(List.of(orderId), ids(orderRepository.findAllByString(byNameAndStatus)));
+        assertEquals(List.of(orderId), ids(orderRepository.findAllByCriteria(byNameAndStatus)));
+    }
+
+    @Test
+    public void 회원이름_토큰_서브쿼리() throws Exception {
+        // given
+        Long plain = order(join("뷁서브 쿼리"));
+        Long special = order(join("뷁서브쿼리%_x"));
+
+        // when, then (세 가지 방식 모두 같은 결과)
+        assertSearch("뷁", plain, special);             // 한 글자 ⇒ 토큰 하나
+        assertSearch("브 쿼", plain, special);          // 공백 무시
+        assertSearch("서브쿼리%_", special);            // 4글자 이상 ⇒ trigram + 이름 확인, %, _ 는 글자 그대로
+        assertSearch("뷁서브쿼리%_y");                  // 없는 이름
+    }
+
+    private void assertSearch(String memberName, Long... expectedOrderIds) {
+        OrderSearch orderSearch = new OrderSearch();
+        orderSearch.setMemberName(memberName);
+        List<Long> expected = List.of(expectedOrderIds).stream().sorted().collect(Collectors.toList());
+        assertEquals(expected, ids(orderRepository.findAll(orderSearch)), memberName);
+        assertEquals(expected, ids(orderRepository.findAllByString(orderSearch)), memberName);
+        assertEquals(expected, ids(orderRepository.findAllByCriteria(orderSearch)), memberName);
+        assertEquals(expected, orderRepository.findIds(orderSearch).stream().sorted().collect(Collectors.toList()), memberName);
+    }
+
+    @Test
+    public void 두번째_검색부터_쿼리_plan_캐시_miss_없음() throws Exception {
+        // given
+        // (HQL 문자열로 실행되는 경로만 ⇒ Criteria 는 plan 캐시 대상이 아니다. OrderRepository.findAllByCriteria 참고)
+        order(join("플랜캐시회원"));
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        assertTrue(statistics.isStatisticsEnabled());
+        searchAll(orderRepository::findAllByString);
+        searchAll(orderRepository::findAll);
+
+        // when
+        long missBefore = statistics.getQueryPlanCacheMissCount();
+        long hitBefore = statistics.getQueryPlanCacheHitCount();
+        searchAll(orderRepository::findAllByString);
+        searchAll(orderRepository::findAll);
+
+        // then (같은 조건 조합이면 다시 파싱/해석하지 않고 캐시에서 꺼낸다.)
+        assertEquals(missBefore, statistics.getQueryPlanCacheMissCount());
+        assertTrue(statistics.getQueryPlanCacheHitCount() > hitBefore, "plan 캐시 hit 가 늘어야 한다.");
+    }
+
+    private void searchAll(Function<OrderSearch, List<Order>> search) {
+        for (OrderSearch orderSearch : searches()) {
+            search.apply(orderSearch);
+        }
+    }
+
+    // 상태 유무 × 회원 이름 유무
+    private List<OrderSearch> searches() {
+        OrderSearch none = new OrderSearch();
+
+        OrderSearch byStatus = new OrderSearch();
+        byStatus.setOrderStatus(OrderStatus.ORDER);
+
+        OrderSearch byName = new OrderSearch();
+        byName.setMemberName("플랜캐시");
+
+        OrderSearch byBoth = new OrderSearch();
+        byBoth.setOrderStatus(OrderStatus.CANCEL);
+        byBoth.setMemberName("플랜캐시");
+
+        return List.of(none, byStatus, byName, byBoth);
+    }
+
+    private List<Long> ids(List<Order> orders) {
+        return orders.stream().map(Order::getId).sorted().collect(Collectors.toList());
+    }
+
+    private Long join(String name) {
+        Member member = new Member();
+        member.setName(name);
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        return memberService.join(member);
+    }
+
+    private Long order(Long memberId) {
+        Book book = new Book();
+        book.setName("플랜캐시 JPA");
+        book.setPrice(10000);
+        book.setStockQuantity(10);
+        itemService.saveItem(book);
+        return orderService.order(memberId, book.getId(), 1);
+    }
+}
@@ -0,0 +1,277 @@
+package jpabook.jpashop.repository;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import jakarta.persistence.EntityManager;
+import jpabook.jpashop.domain.*;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 쿼리 실행 계획 회귀 테스트
+ * 데이터를 넣고 repository 쿼리를 실행하면서 실제로 나간 SQL 을 p6spy 로 잡아 H2 EXPLAIN 을 돌린다.
+ * 인덱스로 찾아야 하는 테이블이 전체 스캔(tableScan)으로 바뀌면 실패한다. (인덱스를 지웠거나 쿼리를 잘못 바꾼 경우)
+ * H2 ANALYZE 는 열려 있는 트랜잭션을 커밋한다. ⇒ 이 테스트만 쓰는 메모리 DB 에 데이터를 한 번만 넣고 (롤백되지 않음) 다른 테스트 DB 에는 남기지 않는다.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:query-plan;DB_CLOSE_DELAY=-1")
+@Transactional
+class QueryPlanTest {
+
+    private static final int MEMBER_COUNT = 500;
+    private static final int ITEM_COUNT = 100;
+    private static final int ORDER_COUNT = 2000;
+    private static final int CATEGORY_COUNT = 20;
+
+    @Autowired EntityManager em;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired OrderRepository orderRepository;
+    @Autowired OrderQueryRepository orderQueryRepository;
+    @Autowired OrderSimpleQueryRepository orderSimpleQueryRepository;
+    @Autowired MemberRepository memberRepository;
+    @Autowired ItemRepository itemRepository;
+    @Autowired MemberNameTokenRepository memberNameTokenRepository;
+    @Autowired CategoryItemRepository categoryItemRepository;
+
+    private Long lastOrderId;
+    private Long itemId;
+    private Long categoryId;
+
+    @BeforeEach
+    void seed() {
+        if (seeded()) {
+            lastOrderId = jdbcTemplate.queryForObject("select max(order_id) from orders", Long.class);
+            itemId = jdbcTemplate.queryForObject("select item_id from item where name = 'plan-book-0'", Long.class);
+            categoryId = jdbcTemplate.queryForObject("select category_id from category where name = 'plan-category-0'", Long.class);
+            return;
+        }
+
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < MEMBER_COUNT; i++) {
+            Member member = new Member();
+            member.setName("plan-member-" + i);
+            member.setAddress(new Address("서울", "강가", "123-123"));
+            em.persist(member);
+            memberNameTokenRepository.index(member);
+            members.add(member);
+        }
+        List<Book> items = new ArrayList<>();
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            Book book = new Book();
+            book.setName("plan-book-" + i);
+            book.setPrice(1000);
+            book.setStockQuantity(1_000_000);
+            em.persist(book);
+            items.add(book);
+        }
+        List<Category> categories = new ArrayList<>();
+        for (int i = 0; i < CATEGORY_COUNT; i++) {
+            Category category = new Category();
+            category.setName("plan-category-" + i);
+            em.persist(category);
+            categories.add(category);
+        }
+        for (int i = 0; i < ITEM_COUNT; i++) {      // 상품마다 카테고리 2개
+            categoryItemRepository.save(CategoryItem.createCategoryItem(categories.get(i % CATEGORY_COUNT), items.get(i)));
+            categoryItemRepository.save(CategoryItem.createCategoryItem(categories.get((i + 1) % CATEGORY_COUNT), items.get(i)));
+        }
+        for (int i = 0; i < ORDER_COUNT; i++) {
+            Delivery delivery = new Delivery();
+            delivery.setAddress(members.get(i % MEMBER_COUNT).getAddress());
+            Order order = Order.createOrder(members.get(i % MEMBER_COUNT), delivery,
+                    OrderItem.createReservedOrderItem(items.get(i % ITEM_COUNT), 1000, 1),
+                    OrderItem.createReservedOrderItem(items.get((i + 1) % ITEM_COUNT), 1000, 2));
+            if (i % 10 == 0) {
+                order.setStatus(OrderStatus.CANCEL);
+            }
+            em.persist(order);
+            lastOrderId = order.getId();
+            if (i % 500 == 0) {
+                em.flush();
+                em.clear();
+            }
+        }
+        itemId = items.get(0).getId();
+        categoryId = categories.get(0).getId();
+        em.flush();
+        em.clear();
+        jdbcTemplate.execute("ANALYZE");      // 통계 갱신 (선택도) ⇒ 여기까지 커밋된다.
+    }
+
+    private boolean seeded() {
+        return jdbcTemplate.queryForObject("select count(*) from member where name = 'plan-member-0'", Long.class) > 0;
+    }
+
+    @Test
+    public void 회원이름_주문검색() throws Exception {
+        OrderSearch orderSearch = new OrderSearch();
+        orderSearch.setMemberName("plan-member-42");
+        assertNoFullScan(() -> orderRepository.findAll(orderSearch), "orders", "member_name_token");
+    }
+
+    @Test
+    public void 회원이름_완전일치() throws Exception {
+        assertNoFullScan(() -> memberRepository.findByName("plan-member-7"), "member");
+    }
+
+    @Test
+    public void 키셋페이징() throws Exception {
+        assertNoFullScan(() -> orderRepository.findAllWithMemberDelivery(lastOrderId, 20), "orders");
+    }
+
+    @Test
+    public void 주문ID_키셋페이징() throws Exception {
+        // OrderDtoCache 가 쓰는 id 페이지 (첫 페이지는 idx_orders_id_desc, 다음 페이지는 PK 범위)
+        assertNoFullScan(() -> orderSimpleQueryRepository.findOrderIds(null, 20), "orders");
+        assertNoFullScan(() -> orderSimpleQueryRepository.findOrderIds(lastOrderId, 20), "orders");
+    }
+
+    @Test
+    public void 주문검색_정렬별_키셋페이징() throws Exception {
+        for (OrderSort sort : OrderSort.values()) {
+            OrderSearch orderSearch = new OrderSearch();
+            orderSearch.setSort(sort);
+
+            // 첫 페이지 (조건 없음) ⇒ 정렬과 같은 방향의 인덱스를 읽어야 한다. (내림차순 정렬도)
+            assertNoFullScan(() -> orderRepository.search(orderSearch, null, 20), "orders");
+
+            List<Order> firstPage = orderRepository.search(orderSearch, null, 20);
+            OrderSearchCursor cursor = OrderSearchCursor.of(sort, firstPage.get(firstPage.size() - 1));
+            assertNoFullScan(() -> orderRepository.search(orderSearch, cursor, 20), "orders");
+        }
+    }
+
+    @Test
+    public void 주문검색_건수() throws Exception {
+        OrderSearch byStatusAndDate = new OrderSearch();
+        byStatusAndDate.setOrderStatus(OrderStatus.CANCEL);
+        byStatusAndDate.setOrderDateFrom(LocalDateTime.now().minusDays(1));
+        assertNoFullScan(() -> orderRepository.countUpTo(byStatusAndDate, 10_000), "orders");
+
+        OrderSearch byTotalPrice = new OrderSearch();
+        byTotalPrice.setMaxTotalPrice(1000);
+        assertNoFullScan(() -> orderRepository.countUpTo(byTotalPrice, 10_000), "orders");
+    }
+
+    @Test
+    public void 주문검색_상품포함() throws Exception {
+        OrderSearch orderSearch = new OrderSearch();
+        orderSearch.setItemId(itemId);
+
+        // exists 서브쿼리는 idx_order_item_item_order 로 확인한다.
+        assertNoFullScan(() -> orderRepository.search(orderSearch, null, 20), "orders", "order_item");
+        // 건수는 정렬이 없어서 주문을 순서대로 읽으며 exists 를 확인한다. ⇒ order_item 만 검사
+        assertNoFullScan(() -> orderRepository.countUpTo(orderSearch, 10_000), "order_item");
+    }
+
+    @Test
+    public void 컬렉션_페이징() throws Exception {
+        // 1단계(id 페이지)는 orders 를 PK 순서로 읽는다. ⇒ 2단계의 order_item 조회만 검사
+        assertNoFullScan(() -> orderRepository.findAllWithItem(0, 20), "order_item", "item");
+    }
+
+    @Test
+    public void DTO_컬렉션_IN조회() throws Exception {
+        // findAllByDto_optimization 과 같은 컬렉션 IN 쿼리 (주문 몇 건만)
+        List<Long> ids = List.of(lastOrderId, lastOrderId - 1, lastOrderId - 2);
+        assertNoFullScan(() -> orderQueryRepository.findAllByDto(ids), "orders", "order_item");
+    }
+
+    @Test
+    public void DTO_주문별_주문상품조회() throws Exception {
+        // findOrderQueryDtos 는 루트 쿼리가 모든 주문을 읽는다. (페이징 없음) ⇒ 주문마다 나가는 order_item 조회만 검사
+        assertNoFullScan(() -> orderQueryRepository.findOrderQueryDtos(), "order_item", "item");
+    }
+
+    @Test
+    public void 카테고리_상품() throws Exception {
+        // 카테고리 → 상품은 PK (category_id, item_id), 상품 → 카테고리는 idx_category_item_item_category
+        assertNoFullScan(() -> categoryItemRepository.findItems(categoryId, 0, 20), "category_item", "item");
+        assertNoFullScan(() -> categoryItemRepository.findCategoryIds(itemId), "category_item");
+    }
+
+    @Test
+    public void 대량취소_락() throws Exception {
+        List<Long> ids = List.of(lastOrderId, lastOrderId - 1, lastOrderId - 2);
+        assertNoFullScan(() -> {
+            orderRepository.lockCancelableIds(ids);
+            orderRepository.countDelivered(ids);
+            orderRepository.sumQuantityByItem(ids);
+        }, "orders", "delivery", "order_item");
+    }
+
+    @Test
+    public void 핫상품_미반영_주문상품() throws Exception {
+        assertNoFullScan(() -> itemRepository.findUnreconciledOrderItems(itemId, 100), "order_item");
+    }
+
+    // 실행된 select 마다 EXPLAIN ⇒ tables 중 하나라도 tableScan 이면 실패
+    private void assertNoFullScan(Runnable repositoryCall, String... tables) {
+        List<String> statements = capture(repositoryCall);
+        assertFalse(statements.isEmpty(), "실행된 쿼리가 없습니다.");
+
+        Set<String> checked = Set.of(tables);
+        for (String sql : statements) {
+            String plan = jdbcTemplate.queryForObject("explain " + sql, String.class);
+            for (String table : checked) {
+                String scan = "PUBLIC." + table.toUpperCase(Locale.ROOT) + ".tableScan";
+                assertFalse(plan.contains(scan), () -> table + " 전체 스캔\nSQL : " + sql + "\nPLAN : " + plan);
+            }
+        }
+    }
+
+    private List<String> capture(Runnable repositoryCall) {
+        em.clear();     // 1차 캐시에서 꺼내지 않고 쿼리가 나가도록
+        List<String> statements = new ArrayList<>();
+        CapturingListener.STATEMENTS.set(statements);
+        try {
+            repositoryCall.run();
+            em.flush();
+        } finally {
+            CapturingListener.STATEMENTS.remove();
+        }
+        return statements.stream()
+                .filter(sql -> sql.trim().toLowerCase(Locale.ROOT).startsWith("select"))
+                .collect(Collectors.toList());
+    }
+
+    @TestConfiguration
+    static class CapturingConfig {
+        @Bean
+        CapturingListener capturingListener() {
+            return new CapturingListener();
+        }
+    }
+
+    // assertNoFullScan 실행 중에만 SQL(바인딩 값 포함)을 모은다.
+    static class CapturingListener extends SimpleJdbcEventListener {
+
+        static final ThreadLocal<List<String>> STATEMENTS = new ThreadLocal<>();
+
+        @Override
+        public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+            List<String> statements = STATEMENTS.get();
+            if (statements != null) {
+                statements.add(statementInformation.getSqlWithValues());
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package jpabook.jpashop.repository.order;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryDto;
+import jpabook.jpashop.service.ItemService;
+import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// 캐시 무효화는 커밋 후에 일어나므로 @Transactional 을 붙이지 않는다.
+@SpringBootTest
+class OrderDtoCacheTest {
+
+    @Autowired OrderDtoCache orderDtoCache;
+    @Autowired OrderService orderService;
+    @Autowired MemberService memberService;
+    @Autowired ItemService itemService;
+
+    @Test
+    public void 주문취소_캐시무효화() throws Exception {
+        // given
+        Long orderId = createOrder(createMember());
+        assertEquals(OrderStatus.ORDER, findSimple(orderId).getOrderStatus());
+        assertEquals(OrderStatus.ORDER, find(orderId).getOrderStatus());
+        assertSame(findSimple(orderId), findSimple(orderId), "두 번째 조회는 캐시에서 가져와야 한다.");
+
+        // when
+        orderService.cancelOrder(orderId);
+
+        // then
+        assertEquals(OrderStatus.CANCEL, findSimple(orderId).getOrderStatus());
+        assertEquals(OrderStatus.CANCEL, find(orderId).getOrderStatus());
+    }
+
+    @Test
+    public void 회원이름변경_캐시무효화() throws Exception {
+        // given
+        Long memberId = createMember();
+        Long orderId = createOrder(memberId);
+        findSimple(orderId);
+
+        // when
+        String newName = "변경-" + UUID.randomUUID();
+        memberService.update(memberId, newName);
+
+        // then
+        assertEquals(newName, findSimple(orderId).getName());
+    }
+
+    // 커서가 orderId + 1 이면 그 주문부터 한 건
+    @Test
+    public void 주문id_키셋_페이지() throws Exception {
+        // given
+        Long memberId = createMember();
+        Long first = createOrder(memberId);
+        Long second = createOrder(memberId);
+        Long third = createOrder(memberId);
+        orderDtoCache.findOrderDtos(second + 1, 1);      // 가운데 주문만 캐시에 올려 둔다.
+
+        // when (캐시에 있는 것 + 없는 것 섞어서)
+        List<Long> page = orderDtoCache.findOrderDtos(third + 1, 3).stream()
+                .map(OrderSimpleQueryDto::getOrderId)
+                .collect(Collectors.toList());
+
+        // then (최신순)
+        assertEquals(List.of(third, second, first), page);
+        assertEquals(List.of(first), orderDtoCache.findAllByDto(second, 1).stream()
+                .map(OrderQueryDto::getOrderId)
+                .collect(Collectors.toList()));
+    }
+
+    private OrderSimpleQueryDto findSimple(Long orderId) {
+        List<OrderSimpleQueryDto> page = orderDtoCache.findOrderDtos(orderId + 1, 1);
+        assertEquals(orderId, page.get(0).getOrderId());
+        return page.get(0);
+    }
+
+    private OrderQueryDto find(Long orderId) {
+        List<OrderQueryDto> page = orderDtoCache.findAllByDto(orderId + 1, 1);
+        assertEquals(orderId, page.get(0).getOrderId());
+        return page.get(0);
+    }
+
+    private Long createMember() {
+        Member member = new Member();
+        member.setName("캐시-" + UUID.randomUUID());
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        return memberService.join(member);
+    }
+
+    private Long createOrder(Long memberId) {
+        Book book = new Book();
+        book.setName("캐시 JPA");
+        book.setPrice(10000);
+        book.setStockQuantity(10);
+        itemService.saveItem(book);
+
+        return orderService.order(memberId, book.getId(), 1);
+    }
+}
@@ -0,0 +1,61 @@
+package jpabook.jpashop.repository.order.query;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.OrderStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderFlatAssemblerTest {
+
+    @Test
+    public void 주문별_조립_순서유지() throws Exception {
+        // given
+        List<OrderFlatDto> flats = createFlats(1000, 3);
+
+        // when
+        List<OrderQueryDto> result = OrderFlatAssembler.assembleSequential(flats);
+
+        // then
+        assertEquals(1000, result.size());
+        for (int i = 0; i < result.size(); i++) {
+            // order by o.id desc 로 들어온 순서 그대로
+            assertEquals(999L - i, result.get(i).getOrderId());
+            assertEquals(3, result.get(i).getOrderItems().size());
+        }
+    }
+
+    @Test
+    public void 병렬_조립은_순차_조립과_같다() throws Exception {
+        // given (경계에 주문이 걸치도록 주문당 row 수를 7로)
+        List<OrderFlatDto> flats = createFlats(20_000, 7);
+
+        // when
+        List<OrderQueryDto> sequential = OrderFlatAssembler.assembleSequential(flats);
+        List<OrderQueryDto> parallel = OrderFlatAssembler.assembleParallel(flats);
+
+        // then
+        assertEquals(sequential.size(), parallel.size());
+        for (int i = 0; i < sequential.size(); i++) {
+            assertEquals(sequential.get(i).getOrderId(), parallel.get(i).getOrderId());
+            assertEquals(sequential.get(i).getOrderItems(), parallel.get(i).getOrderItems());
+        }
+    }
+
+    private List<OrderFlatDto> createFlats(int orderCount, int itemsPerOrder) {
+        List<OrderFlatDto> flats = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        Address address = new Address("서울", "강가", "123-123");
+        for (long orderId = orderCount - 1; orderId >= 0; orderId--) {
+            for (int i = 0; i < itemsPerOrder; i++) {
+                flats.add(new OrderFlatDto(orderId, "회원" + orderId, now, OrderStatus.ORDER, address,
+                        "상품" + i, 10000, i + 1));
+            }
+        }
+        return flats;
+    }
+}
@@ -0,0 +1,91 @@
+package jpabook.jpashop.service;
+
+import jakarta.persistence.EntityManager;
+import jpabook.jpashop.domain.Category;
+import jpabook.jpashop.domain.CategoryItem;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Item;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class CategoryHierarchyServiceTest {
+
+    @Autowired EntityManager em;
+    @Autowired CategoryHierarchyService categoryHierarchyService;
+
+    @Test
+    public void 하위카테고리_상품조회() throws Exception {
+        // given
+        Category root = createCategory("도서", null);
+        Category it = createCategory("IT", root);
+        Category java = createCategory("자바", it);
+        Category novel = createCategory("소설", root);
+
+        Book jpa = createBook("JPA", java);
+        Book network = createBook("네트워크", it);
+        Book novelBook = createBook("소설책", novel);
+        em.flush();
+        em.clear();
+
+        // when
+        CategoryTree tree = categoryHierarchyService.getTree();
+        List<Long> itItemIds = categoryHierarchyService.findItemsInSubtree(it.getId()).stream()
+                .map(Item::getId)
+                .collect(Collectors.toList());
+
+        // then
+        assertEquals(Set.of(it.getId(), java.getId()), tree.subtreeIds(it.getId()));
+        assertEquals(Set.of(root.getId(), it.getId(), java.getId(), novel.getId()), tree.subtreeIds(root.getId()));
+        assertEquals(2, tree.find(root.getId()).get().getChildren().size());
+        assertEquals(List.of(jpa.getId(), network.getId()), itItemIds, "하위 카테고리(자바)의 상품까지 조회되어야 한다.");
+        assertFalse(itItemIds.contains(novelBook.getId()));
+    }
+
+    @Test
+    public void 카테고리추가_스냅샷갱신() throws Exception {
+        // given
+        Category root = createCategory("가전", null);
+        assertEquals(Set.of(root.getId()), categoryHierarchyService.getTree().subtreeIds(root.getId()));
+
+        // when
+        Category tv = createCategory("TV", root);
+
+        // then
+        assertEquals(Set.of(root.getId(), tv.getId()), categoryHierarchyService.getTree().subtreeIds(root.getId()));
+    }
+
+    @Test
+    public void 없는카테고리_상품조회() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> categoryHierarchyService.findItemsInSubtree(-1L));
+    }
+
+    private Category createCategory(String name, Category parent) {
+        Category category = new Category();
+        category.setName(name);
+        if (parent != null) {
+            parent.addChildCategory(category);
+        }
+        categoryHierarchyService.saveCategory(category);
+        return category;
+    }
+
+    private Book createBook(String name, Category category) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(10000);
+        book.setStockQuantity(10);
+        em.persist(book);
+        em.persist(CategoryItem.createCategoryItem(category, book));
+        return book;
+    }
+}
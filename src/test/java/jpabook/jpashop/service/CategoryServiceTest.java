@@ -0,0 +1,85 @@
+package jpabook.jpashop.service;
+
+import jakarta.persistence.EntityManager;
+import jpabook.jpashop.domain.Category;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.repository.CategoryItemRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class CategoryServiceTest {
+
+    @Autowired EntityManager em;
+    @Autowired CategoryService categoryService;
+    @Autowired CategoryItemRepository categoryItemRepository;
+
+    @Test
+    public void 대량연결_중복무시() throws Exception {
+        // given
+        Category category = createCategory("도서");
+        List<Long> itemIds = createBooks(1500);
+
+        // when
+        int assigned = categoryService.assignItems(category.getId(), itemIds);
+        int assignedAgain = categoryService.assignItems(category.getId(), itemIds.subList(0, 10));
+
+        // then
+        assertEquals(1500, assigned);
+        assertEquals(0, assignedAgain, "이미 연결된 상품은 다시 연결하지 않는다.");
+        List<Long> firstPage = ids(categoryService.findItems(category.getId(), 0, 100));
+        assertEquals(itemIds.subList(0, 100), firstPage);
+        assertEquals(List.of(category.getId()), categoryItemRepository.findCategoryIds(itemIds.get(0)));
+    }
+
+    @Test
+    public void 카테고리이동() throws Exception {
+        // given
+        Category from = createCategory("IT");
+        Category to = createCategory("컴퓨터");
+        List<Long> itemIds = createBooks(20);
+        categoryService.assignItems(from.getId(), itemIds);
+
+        // when
+        int moved = categoryService.moveItems(from.getId(), to.getId(), itemIds.subList(0, 5));
+
+        // then
+        assertEquals(5, moved);
+        assertEquals(itemIds.subList(5, 20), ids(categoryService.findItems(from.getId(), 0, 100)));
+        assertEquals(itemIds.subList(0, 5), ids(categoryService.findItems(to.getId(), 0, 100)));
+    }
+
+    private List<Long> ids(List<Item> items) {
+        return items.stream().map(Item::getId).collect(Collectors.toList());
+    }
+
+    private Category createCategory(String name) {
+        Category category = new Category();
+        category.setName(name);
+        em.persist(category);
+        return category;
+    }
+
+    private List<Long> createBooks(int count) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Book book = new Book();
+            book.setName("책" + i);
+            book.setPrice(10000);
+            book.setStockQuantity(10);
+            em.persist(book);
+            ids.add(book.getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,168 @@
+package jpabook.jpashop.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.exception.NotEnoughStockException;
+import jpabook.jpashop.repository.ItemRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 핫 상품 원장 + 반영 작업 + 재시작/관리자 재고 수정 후 복구
+ * 주문 트랜잭션을 각각 커밋해야 하므로 @Transactional 을 붙이지 않고, 만든 데이터는 @AfterEach 에서 지운다.
+ * 핫 상품 id 는 컨텍스트를 띄울 때 정해지므로 테스트마다 고정 id 로 상품을 직접 넣는다. (반영 작업은 테스트에서 직접 호출)
+ */
+@SpringBootTest(properties = {
+        "jpashop.stock.hot-item-ids=" + HotItemStockLedgerTest.LEDGER_ITEM_ID + "," + HotItemStockLedgerTest.RESTART_ITEM_ID + "," + HotItemStockLedgerTest.ADJUST_ITEM_ID,
+        "jpashop.stock.reconcile-interval-ms=3600000"
+})
+class HotItemStockLedgerTest {
+
+    static final long LEDGER_ITEM_ID = 990_001L;
+    static final long RESTART_ITEM_ID = 990_002L;
+    static final long ADJUST_ITEM_ID = 990_003L;
+
+    @Autowired OrderService orderService;
+    @Autowired MemberService memberService;
+    @Autowired ItemService itemService;
+    @Autowired ItemRepository itemRepository;
+    @Autowired HotItemStockLedger ledger;
+    @Autowired HotItemStockReconciler reconciler;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired EntityManagerFactory emf;
+
+    private final List<Long> memberIds = new ArrayList<>();
+    private final List<Long> itemIds = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        for (Long itemId : itemIds) {
+            deleteItem(itemId);
+        }
+        for (Long memberId : memberIds) {
+            jdbcTemplate.update("delete from member_name_token where member_id = ?", memberId);
+            jdbcTemplate.update("delete from member where member_id = ?", memberId);
+        }
+    }
+
+    @Test
+    public void 원장_예약_반영() throws Exception {
+        // given
+        Long itemId = createHotItem(LEDGER_ITEM_ID, 10);
+        Long memberId = createMember();
+
+        // when
+        orderService.order(memberId, itemId, 3);
+        orderService.order(memberId, itemId, 4);
+
+        // then (예약만 하고 item 재고는 그대로)
+        assertEquals(3, ledger.available(itemId));
+        assertEquals(10, stockQuantity(itemId));
+        assertThrows(NotEnoughStockException.class, () -> orderService.order(memberId, itemId, 4));
+
+        reconciler.reconcile();
+        assertEquals(3, stockQuantity(itemId));
+        assertEquals(3, ledger.available(itemId));
+        assertEquals(3, itemRepository.findLedgerStock(itemId));
+    }
+
+    @Test
+    public void 재시작하면_반영_안된_예약분을_빼고_복구() throws Exception {
+        // given (2개는 반영, 5개는 아직 반영 안 됨)
+        Long itemId = createHotItem(RESTART_ITEM_ID, 10);
+        Long memberId = createMember();
+        orderService.order(memberId, itemId, 2);
+        reconciler.reconcile();
+        orderService.order(memberId, itemId, 5);
+
+        // when (재시작 = 원장을 새로 만들어서 DB 에서 다시 읽음)
+        HotItemStockLedger restarted = new HotItemStockLedger(itemRepository, Set.of(itemId), 8);
+
+        // then
+        assertEquals(3, restarted.available(itemId));
+        restarted.reserve(itemId, 3);
+        assertThrows(NotEnoughStockException.class, () -> restarted.reserve(itemId, 1));
+    }
+
+    @Test
+    public void 예약중에_관리자가_재고를_수정해도_초과판매_없음() throws Exception {
+        // given
+        Long itemId = createHotItem(ADJUST_ITEM_ID, 10);
+        Long memberId = createMember();
+        orderService.order(memberId, itemId, 1);       // 원장을 메모리에 올린다.
+
+        // when (주문 트랜잭션이 5개를 예약하고 커밋하기 전에, 다른 트랜잭션에서 관리자가 재고를 20 으로 수정)
+        TransactionTemplate orderTx = new TransactionTemplate(transactionManager);
+        TransactionTemplate adminTx = new TransactionTemplate(transactionManager);
+        adminTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        orderTx.executeWithoutResult(status -> {
+            orderService.order(memberId, itemId, 5);
+            adminTx.executeWithoutResult(s -> itemService.updateItem(itemId, "핫상품", 10000, 20));
+
+            // 아직 커밋 안 된 예약 5개도 빠져 있어야 한다. (원장을 DB 에서 다시 읽으면 20 - 1 = 19 가 된다.)
+            assertEquals(14, ledger.available(itemId));
+            assertThrows(NotEnoughStockException.class,
+                    () -> adminTx.executeWithoutResult(s -> orderService.order(memberId, itemId, 15)));
+        });
+
+        // then (20 - 커밋된 예약 1 - 방금 커밋된 예약 5)
+        assertEquals(14, ledger.available(itemId));
+        assertEquals(14, itemRepository.findLedgerStock(itemId));
+        assertThrows(NotEnoughStockException.class, () -> orderService.order(memberId, itemId, 15));
+        orderService.order(memberId, itemId, 14);
+        assertEquals(0, ledger.available(itemId));
+
+        reconciler.reconcile();
+        assertEquals(0, stockQuantity(itemId));
+    }
+
+    private Long createHotItem(long itemId, int stockQuantity) {
+        deleteItem(itemId);     // 이전 실행이 중간에 끊겨서 남아 있을 수 있다.
+        jdbcTemplate.update("insert into item (dtype, item_id, name, price, stock_quantity) values ('B', ?, '핫상품', 10000, ?)",
+                itemId, stockQuantity);
+        emf.getCache().evict(Item.class, itemId);
+        itemIds.add(itemId);
+        return itemId;
+    }
+
+    private void deleteItem(long itemId) {
+        List<Long> orderIds = jdbcTemplate.queryForList("select order_id from order_item where item_id = ?", Long.class, itemId);
+        for (Long orderId : orderIds) {
+            Long deliveryId = jdbcTemplate.queryForObject("select delivery_id from orders where order_id = ?", Long.class, orderId);
+            jdbcTemplate.update("delete from order_item where order_id = ?", orderId);
+            jdbcTemplate.update("delete from orders where order_id = ?", orderId);
+            jdbcTemplate.update("delete from delivery where delivery_id = ?", deliveryId);
+        }
+        jdbcTemplate.update("delete from item where item_id = ?", itemId);
+        emf.getCache().evict(Item.class, itemId);
+    }
+
+    private int stockQuantity(Long itemId) {
+        return jdbcTemplate.queryForObject("select stock_quantity from item where item_id = ?", Integer.class, itemId);
+    }
+
+    private Long createMember() {
+        Member member = new Member();
+        member.setName("핫상품-" + UUID.randomUUID());
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        Long memberId = memberService.join(member);
+        memberIds.add(memberId);
+        return memberId;
+    }
+}
@@ -0,0 +1,79 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.item.Album;
+import jpabook.jpashop.domain.item.Book;
+import org.hibernate.search.engine.search.query.SearchResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// 인덱스는 커밋할 때 갱신되므로 @Transactional 을 붙이지 않는다. (read-sync : 커밋 후 바로 검색되도록)
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.search.indexing.plan.synchronization.strategy=read-sync")
+class ItemSearchServiceTest {
+
+    @Autowired ItemService itemService;
+    @Autowired ItemSearchService itemSearchService;
+
+    @Test
+    public void 앞글자_오타_ISBN_검색() throws Exception {
+        // given (다른 테스트 데이터와 겹치지 않도록 검색어 앞에 임의의 문자열)
+        String prefix = "p" + UUID.randomUUID().toString().substring(0, 8);
+        String isbn = UUID.randomUUID().toString();
+        Long bookId = createBook(prefix + "hibernate", "Gavin", isbn);
+        Long albumId = createAlbum(prefix + "hibernation", "singer" + prefix);
+
+        // when, then
+        assertEquals(Set.of(bookId, albumId), Set.copyOf(ids(itemSearchService.search(prefix + "hibernat", 0, 10))), "앞글자 검색");
+        assertEquals(List.of(bookId), ids(itemSearchService.search(prefix + "hibernatx", 0, 10)), "오타 1글자 허용");
+        assertEquals(List.of(bookId), ids(itemSearchService.search(isbn, 0, 10)), "ISBN 검색");
+        assertEquals(List.of(albumId), ids(itemSearchService.search("singer" + prefix, 0, 10)), "아티스트 검색");
+    }
+
+    @Test
+    public void 상품수정_인덱스갱신() throws Exception {
+        // given
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        Long itemId = createBook("spring" + suffix, "Kim", UUID.randomUUID().toString());
+
+        // when
+        itemService.updateItem(itemId, "Querydsl" + suffix, 20000, 10);
+
+        // then
+        assertTrue(ids(itemSearchService.search("spring" + suffix, 0, 10)).isEmpty());
+        SearchResult<ItemSearchDto> result = itemSearchService.search("querydsl" + suffix, 0, 10);
+        assertEquals(1, result.total().hitCount());
+        assertEquals(20000, result.hits().get(0).getPrice());
+    }
+
+    private List<Long> ids(SearchResult<ItemSearchDto> result) {
+        return result.hits().stream().map(ItemSearchDto::getItemId).collect(Collectors.toList());
+    }
+
+    private Long createBook(String name, String author, String isbn) {
+        Book book = new Book();
+        book.setName(name);
+        book.setAuthor(author);
+        book.setIsbn(isbn);
+        book.setPrice(10000);
+        book.setStockQuantity(10);
+        itemService.saveItem(book);
+        return book.getId();
+    }
+
+    private Long createAlbum(String name, String artist) {
+        Album album = new Album();
+        album.setName(name);
+        album.setArtist(artist);
+        album.setPrice(15000);
+        album.setStockQuantity(10);
+        itemService.saveItem(album);
+        return album.getId();
+    }
+}
@@ -2,17 +2,23 @@ package jpabook.jpashop.service;
 
 import jakarta.persistence.EntityManager;
 import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.DeliveryStatus;
 import jpabook.jpashop.domain.Member;
 import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.domain.OrderStatus;
 import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.exception.InvalidRequestException;
 import jpabook.jpashop.exception.NotEnoughStockException;
 import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.repository.OrderSort;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
@@ -77,6 +83,107 @@ class OrderServiceTest {
         assertEquals(10, book.getStockQuantity());
     }
 
+    @Test
+    public void 대량주문() throws Exception {
+        // given
+        Member member = createMember();
+        Book book1 = createBook("서울 JPA", 10000, 10);
+        Book book2 = createBook("부산 JPA", 20000, 10);
+
+        List<OrderRequestDto> requests = List.of(
+                new OrderRequestDto(member.getId(), List.of(
+                        new OrderLineDto(book1.getId(), 2),
+                        new OrderLineDto(book2.getId(), 1))),
+                new OrderRequestDto(member.getId(), List.of(
+                        new OrderLineDto(book1.getId(), 3))));
+
+        // when
+        List<Long> orderIds = orderService.orders(requests);
+        em.flush();
+        em.clear();
+
+        // then
+        assertEquals(2, orderIds.size());
+        Order first = orderRepository.findOne(orderIds.get(0));
+        assertEquals(2, first.getOrderItems().size());
+        assertEquals(10000 * 2 + 20000, first.getTotalPrice());
+        assertEquals(5, em.find(Book.class, book1.getId()).getStockQuantity());       // 상품별로 합쳐서 한 번에 차감
+        assertEquals(9, em.find(Book.class, book2.getId()).getStockQuantity());
+    }
+
+    @Test
+    public void 대량주문_재고수량초과() throws Exception {
+        // given
+        Member member = createMember();
+        Book book = createBook("서울 JPA", 10000, 10);
+
+        List<OrderRequestDto> requests = List.of(
+                new OrderRequestDto(member.getId(), List.of(new OrderLineDto(book.getId(), 6))),
+                new OrderRequestDto(member.getId(), List.of(new OrderLineDto(book.getId(), 5))));
+
+        // when
+
+        // then (주문 하나하나는 재고 안이지만 합치면 초과)
+        assertThrows(NotEnoughStockException.class, () -> orderService.orders(requests));
+    }
+
+    @Test
+    public void 대량취소() throws Exception {
+        // given
+        Member member = createMember();
+        Book book1 = createBook("서울 JPA", 10000, 10);
+        Book book2 = createBook("부산 JPA", 20000, 10);
+        Long orderId1 = orderService.order(member.getId(), book1.getId(), 2);
+        Long orderId2 = orderService.order(member.getId(), book1.getId(), 3);
+        Long orderId3 = orderService.order(member.getId(), book2.getId(), 4);
+        orderService.cancelOrder(orderId3);     // 이미 취소된 주문은 건너뛴다.
+
+        // when
+        int canceled = orderService.cancelOrders(List.of(orderId1, orderId2, orderId3));
+
+        // then
+        assertEquals(2, canceled);
+        assertEquals(OrderStatus.CANCEL, orderRepository.findOne(orderId1).getStatus());
+        assertEquals(OrderStatus.CANCEL, orderRepository.findOne(orderId2).getStatus());
+        assertEquals(10, em.find(Book.class, book1.getId()).getStockQuantity());
+        assertEquals(10, em.find(Book.class, book2.getId()).getStockQuantity());
+    }
+
+    @Test
+    public void 대량취소_배송완료() throws Exception {
+        // given
+        Member member = createMember();
+        Book book = createBook("서울 JPA", 10000, 10);
+        Long orderId1 = orderService.order(member.getId(), book.getId(), 2);
+        Long orderId2 = orderService.order(member.getId(), book.getId(), 3);
+        orderRepository.findOne(orderId2).getDelivery().setStatus(DeliveryStatus.COMP);
+
+        // when
+
+        // then
+        assertThrows(IllegalStateException.class, () -> orderService.cancelOrders(List.of(orderId1, orderId2)));
+    }
+
+    @Test
+    public void 검색조건_없는_대량취소_거부() throws Exception {
+        // given
+        Member member = createMember();
+        Book book = createBook("서울 JPA", 10000, 10);
+        Long orderId = orderService.order(member.getId(), book.getId(), 2);
+
+        // when (빈 조건, 정렬만 있는 조건)
+        OrderSearch sortOnly = new OrderSearch();
+        sortOnly.setSort(OrderSort.TOTAL_PRICE_DESC);
+        assertThrows(InvalidRequestException.class, () -> orderService.cancelOrders(new OrderSearch()));
+        assertThrows(InvalidRequestException.class, () -> orderService.cancelOrders(sortOnly));
+        em.flush();
+        em.clear();
+
+        // then (아무 주문도 취소되지 않는다.)
+        assertEquals(OrderStatus.ORDER, orderRepository.findOne(orderId).getStatus());
+        assertEquals(8, em.find(Book.class, book.getId()).getStockQuantity());
+    }
+
     private Book createBook(String name, int price, int stockQuantity) {
         Book book = new Book();
         book.setName(name);
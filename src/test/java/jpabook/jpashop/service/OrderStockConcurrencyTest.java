@@ -0,0 +1,126 @@
+package jpabook.jpashop.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.exception.NotEnoughStockException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// 여러 스레드가 각자 트랜잭션으로 주문해야 하므로 @Transactional 을 붙이지 않는다. ⇒ 만든 회원/상품/주문은 @AfterEach 에서 지운다.
+@SpringBootTest
+class OrderStockConcurrencyTest {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderStockConcurrencyTest.class);
+
+    @Autowired OrderService orderService;
+    @Autowired MemberService memberService;
+    @Autowired ItemService itemService;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired EntityManagerFactory emf;
+
+    private final List<Long> memberIds = new ArrayList<>();
+    private final List<Long> itemIds = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        for (Long itemId : itemIds) {
+            // 주문은 스레드마다 만들어져서 id 를 따로 모으지 않고 상품으로 찾는다.
+            List<Long> orderIds = jdbcTemplate.queryForList("select distinct order_id from order_item where item_id = ?", Long.class, itemId);
+            for (Long orderId : orderIds) {
+                Long deliveryId = jdbcTemplate.queryForObject("select delivery_id from orders where order_id = ?", Long.class, orderId);
+                jdbcTemplate.update("delete from order_item where order_id = ?", orderId);
+                jdbcTemplate.update("delete from orders where order_id = ?", orderId);
+                jdbcTemplate.update("delete from delivery where delivery_id = ?", deliveryId);
+            }
+            jdbcTemplate.update("delete from item where item_id = ?", itemId);
+            emf.getCache().evict(Item.class, itemId);
+        }
+        for (Long memberId : memberIds) {
+            jdbcTemplate.update("delete from member_name_token where member_id = ?", memberId);
+            jdbcTemplate.update("delete from member where member_id = ?", memberId);
+        }
+    }
+
+    @Test
+    public void 동시주문_초과판매_없음() throws Exception {
+        // given
+        int stock = 100;
+        int threadCount = 8;
+        int orderCount = 300;
+
+        Long memberId = createMember();
+        Long itemId = createBook(stock);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger success = new AtomicInteger();
+        AtomicInteger soldOut = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        // when
+        for (int i = 0; i < orderCount; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    orderService.order(memberId, itemId, 1);
+                    success.incrementAndGet();
+                } catch (NotEnoughStockException e) {
+                    soldOut.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        long startNanos = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);       // 재고 부족 외의 예외(락 타임아웃 등)가 있으면 여기서 실패
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        executor.shutdown();
+
+        // then
+        assertEquals(stock, success.get());
+        assertEquals(orderCount - stock, soldOut.get());
+        assertEquals(0, itemService.findOne(itemId).getStockQuantity());
+
+        // 처리량은 환경마다 달라서 검증하지 않고 기록만 한다. (성능 비교는 loadtest)
+        log.info("single SKU : {} orders in {} ms ({} orders/sec)", orderCount, TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                Math.round(orderCount / (elapsedNanos / 1_000_000_000.0)));
+    }
+
+    private Long createMember() {
+        Member member = new Member();
+        member.setName("동시주문-" + UUID.randomUUID());
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        Long memberId = memberService.join(member);
+        memberIds.add(memberId);
+        return memberId;
+    }
+
+    private Long createBook(int stockQuantity) {
+        Book book = new Book();
+        book.setName("동시주문 JPA");
+        book.setPrice(10000);
+        book.setStockQuantity(stockQuantity);
+        itemService.saveItem(book);
+        itemIds.add(book.getId());
+        return book.getId();
+    }
+}
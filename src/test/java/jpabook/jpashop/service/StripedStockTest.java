@@ -0,0 +1,80 @@
+package jpabook.jpashop.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StripedStockTest {
+
+    @Test
+    public void 여러_stripe_에_나눠진_재고를_모아서_예약() throws Exception {
+        // given (stripe 당 1개씩)
+        StripedStock stock = new StripedStock(8, 8);
+
+        // when
+        boolean reserved = stock.tryReserve(5);
+
+        // then
+        assertTrue(reserved);
+        assertEquals(3, stock.available());
+        assertFalse(stock.tryReserve(4));
+        assertEquals(3, stock.available());     // 실패하면 모아온 수량을 되돌린다.
+    }
+
+    @Test
+    public void 예약된_수량보다_재고를_줄이면_반환분으로_먼저_갚는다() throws Exception {
+        // given (10개 중 8개 예약)
+        StripedStock stock = new StripedStock(10, 4);
+        assertTrue(stock.tryReserve(8));
+
+        // when (관리자가 재고를 5 줄임 ⇒ 2 - 5 = -3)
+        stock.adjust(-5);
+
+        // then
+        assertEquals(-3, stock.available());
+        assertFalse(stock.tryReserve(1));
+        stock.release(2);       // 예약 2개 롤백
+        assertEquals(-1, stock.available());
+        assertFalse(stock.tryReserve(1));
+        stock.release(3);
+        assertEquals(2, stock.available());
+        assertTrue(stock.tryReserve(2));
+        assertFalse(stock.tryReserve(1));
+    }
+
+    @Test
+    public void 동시_예약_초과판매_없음() throws Exception {
+        // given
+        int quantity = 10_000;
+        StripedStock stock = new StripedStock(quantity, 8);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        AtomicInteger reserved = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        // when (수량 1~3 을 재고보다 훨씬 많이 요청)
+        for (int t = 0; t < 16; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 2_000; i++) {
+                    int count = 1 + ThreadLocalRandom.current().nextInt(3);
+                    if (stock.tryReserve(count)) {
+                        reserved.addAndGet(count);
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // then
+        assertEquals(quantity - reserved.get(), stock.available());
+        assertTrue(stock.available() >= 0);
+        assertTrue(stock.available() < 3);      // 마지막 남은 몇 개 외에는 다 팔린다.
+    }
+}
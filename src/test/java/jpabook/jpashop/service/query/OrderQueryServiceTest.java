@@ -0,0 +1,69 @@
+package jpabook.jpashop.service.query;
+
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.repository.OrderSearch;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// @Transactional 없이 실행 ⇒ 반환된 값을 트랜잭션 밖에서 사용해도 지연 로딩이 필요 없는지 확인한다. (open-in-view: false)
+// 테스트 설정(src/test/resources/application.yml)은 main 설정을 대신하므로 open-in-view 를 여기서 꺼야 한다. (기본값 true)
+@SpringBootTest(properties = "spring.jpa.open-in-view=false")
+@AutoConfigureMockMvc
+@ActiveProfiles("local")        // InitDb 샘플 주문 2건
+class OrderQueryServiceTest {
+
+    @Autowired OrderQueryService orderQueryService;
+    @Autowired MockMvc mockMvc;
+    @Autowired ApplicationContext applicationContext;
+
+    @Test
+    public void 주문목록_DTO_트랜잭션밖에서_사용() throws Exception {
+        // when
+        List<OrderSummaryDto> orders = orderQueryService.findOrderSummaries(new OrderSearch());
+
+        // then
+        assertFalse(orders.isEmpty());
+        for (OrderSummaryDto order : orders) {
+            assertNotNull(order.getMemberName());
+            assertNotNull(order.getItemName());
+        }
+    }
+
+    @Test
+    public void 엔티티_강제초기화() throws Exception {
+        // when
+        List<Order> orders = orderQueryService.findOrderEntities();
+
+        // then (트랜잭션이 끝난 뒤에 접근해도 LazyInitializationException 이 나지 않는다.)
+        assertFalse(orders.isEmpty());
+        for (Order order : orders) {
+            assertNotNull(order.getMember().getName());
+            assertNotNull(order.getDelivery().getAddress());
+            order.getOrderItems().forEach(oi -> assertNotNull(oi.getItem().getName()));
+        }
+    }
+
+    @Test
+    public void OSIV_off_화면과_API() throws Exception {
+        // OSIV 인터셉터가 없어야 한다. (있으면 아래 요청들은 지연 로딩이 돼도 통과한다.)
+        assertTrue(applicationContext.getBeansOfType(OpenEntityManagerInViewInterceptor.class).isEmpty());
+
+        // (/api/v1/orders 는 엔티티를 그대로 내보내는 예제라 양방향 연관관계에서 직렬화가 순환한다. ⇒ 검사하지 않는다.)
+        mockMvc.perform(get("/orders")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/v2/orders")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/v3.1/orders/keyset")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/v3/simple-orders")).andExpect(status().isOk());
+    }
+}